@@ -0,0 +1,54 @@
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.concurrent.TimeUnit;
+
+// Contention benchmark: every thread pushes and pops on one shared stack, either the lock-free
+// ConcurrentStack or a Stack guarded by a monitor. main runs it at 1 to 64 threads.
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ConcurrentStackBenchmark {
+    private static final int[] THREAD_COUNTS = {1, 2, 4, 8, 16, 32, 64};
+
+    private ConcurrentStack<Integer> concurrentStack;
+    private Stack<Integer> synchronizedStack;
+
+    @Setup
+    public void setUp() {
+        concurrentStack = new ConcurrentStack<>();
+        synchronizedStack = new Stack<>();
+    }
+
+    @Benchmark
+    public Integer lockFree() {
+        concurrentStack.push(1);
+        return concurrentStack.pop();
+    }
+
+    @Benchmark
+    public Integer synchronizedStack() {
+        synchronized (synchronizedStack) {
+            synchronizedStack.push(1);
+        }
+        synchronized (synchronizedStack) {
+            return synchronizedStack.pop();
+        }
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        for (int threads : THREAD_COUNTS) {
+            new Runner(new OptionsBuilder()
+                    .include(ConcurrentStackBenchmark.class.getSimpleName())
+                    .threads(threads)
+                    .addProfiler(GCProfiler.class)
+                    .build()).run();
+        }
+    }
+}
@@ -0,0 +1,69 @@
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+// Evaluation cost per expression shape, through the String entry point and through a precompiled program.
+// The invalid shapes measure the error path, where an IllegalArgumentException is created and thrown.
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class RPNCalculatorBenchmark {
+    @Param({"short", "long", "deep", "invalidToken", "insufficientOperands"})
+    public String shape;
+
+    private RPNCalculator calculator;
+    private String expression;
+    private CompiledExpression compiled;
+    private IntStack stack;
+
+    @Setup
+    public void setUp() {
+        calculator = new RPNCalculator();
+        expression = expressionFor(shape);
+        compiled = isValid() ? calculator.compile(expression) : null;
+        stack = new IntStack();
+    }
+
+    @Benchmark
+    public int evaluate() {
+        try {
+            return calculator.evaluate(expression);
+        } catch (IllegalArgumentException e) {
+            return -1;
+        }
+    }
+
+    @Benchmark
+    public int evaluateCompiled() {
+        return compiled == null ? -1 : compiled.evaluate(stack);
+    }
+
+    private boolean isValid() { return !shape.startsWith("invalid") && !shape.equals("insufficientOperands"); }
+
+    static String expressionFor(String shape) {
+        StringBuilder builder = new StringBuilder();
+        switch (shape) {
+            case "short" -> builder.append("7 8 + 9 *");
+            case "long" -> {
+                // 1000 operators applied left to right, the stack never grows past two values
+                builder.append('1');
+                for (int i = 0; i < 1000; i++)
+                    builder.append(' ').append(i % 97).append(i % 3 == 0 ? " *" : " +");
+            }
+            case "deep" -> {
+                // 500 operands pushed before the first operator
+                for (int i = 0; i < 500; i++)
+                    builder.append(i).append(' ');
+                for (int i = 1; i < 500; i++)
+                    builder.append(i % 2 == 0 ? "- " : "+ ");
+            }
+            case "invalidToken" -> builder.append("1 2 + 3 $ *");
+            case "insufficientOperands" -> builder.append("1 2 + + 4 *");
+            default -> throw new IllegalArgumentException("Unknown shape: " + shape);
+        }
+        return builder.toString().trim();
+    }
+}
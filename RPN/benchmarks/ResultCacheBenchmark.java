@@ -0,0 +1,58 @@
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+// Contended reads: every thread looks up warm expressions in one shared RPNResultCache, the pattern of many
+// calculators sharing a cache. main runs it at 1 to 64 threads; throughput should grow with the thread count.
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ResultCacheBenchmark {
+    private static final int[] THREAD_COUNTS = {1, 2, 4, 8, 16, 32, 64};
+    private static final int KEYS = 1024;
+
+    private RPNResultCache cache;
+    private String[] keys;
+
+    @Setup
+    public void setUp() {
+        cache = new RPNResultCache(KEYS);
+        keys = new String[KEYS];
+        for (int i = 0; i < KEYS; i++) {
+            keys[i] = i + " 2 *";
+            cache.put(keys[i], i * 2);
+        }
+    }
+
+    // Per-thread position in the key set, so threads do not all hit the same entry
+    @State(Scope.Thread)
+    public static class Cursor {
+        int next;
+
+        @Setup
+        public void setUp() { next = ThreadLocalRandom.current().nextInt(KEYS); }
+    }
+
+    @Benchmark
+    public Integer contendedGet(Cursor cursor) {
+        return cache.get(keys[cursor.next++ & (KEYS - 1)]);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        for (int threads : THREAD_COUNTS) {
+            new Runner(new OptionsBuilder()
+                    .include(ResultCacheBenchmark.class.getSimpleName())
+                    .threads(threads)
+                    .addProfiler(GCProfiler.class)
+                    .build()).run();
+        }
+    }
+}
@@ -0,0 +1,66 @@
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+// Push/pop throughput of Stack and IntStack, on an already grown stack and on fresh stacks that have to resize
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class StackBenchmark {
+    @Param({"8", "1000"})
+    public int elements;
+
+    private Stack<Integer> stack;
+    private IntStack intStack;
+
+    @Setup
+    public void setUp() {
+        // Grow both stacks once so the steady-state benchmarks never resize
+        stack = new Stack<>();
+        intStack = new IntStack();
+        for (int i = 0; i < elements; i++) {
+            stack.push(i);
+            intStack.push(i);
+        }
+        while (!stack.isEmpty()) stack.pop();
+        intStack.clear();
+    }
+
+    @Benchmark
+    public void pushPopWithoutResizing(Blackhole blackhole) {
+        for (int i = 0; i < elements; i++)
+            stack.push(i);
+        while (!stack.isEmpty())
+            blackhole.consume(stack.pop());
+    }
+
+    @Benchmark
+    public void pushPopWithResizing(Blackhole blackhole) {
+        Stack<Integer> fresh = new Stack<>();
+        for (int i = 0; i < elements; i++)
+            fresh.push(i);
+        while (!fresh.isEmpty())
+            blackhole.consume(fresh.pop());
+    }
+
+    @Benchmark
+    public void intStackPushPopWithoutResizing(Blackhole blackhole) {
+        for (int i = 0; i < elements; i++)
+            intStack.push(i);
+        while (!intStack.isEmpty())
+            blackhole.consume(intStack.pop());
+    }
+
+    @Benchmark
+    public void intStackPushPopWithResizing(Blackhole blackhole) {
+        IntStack fresh = new IntStack();
+        for (int i = 0; i < elements; i++)
+            fresh.push(i);
+        while (!fresh.isEmpty())
+            blackhole.consume(fresh.pop());
+    }
+}
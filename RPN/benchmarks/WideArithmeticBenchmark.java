@@ -0,0 +1,52 @@
+import org.openjdk.jmh.annotations.*;
+
+import java.math.BigInteger;
+import java.util.concurrent.TimeUnit;
+
+// Overflow-safe evaluation against plain int evaluation of the same compiled program.
+// "small" never leaves the long range, so it shows the cost of the exact fast path;
+// "overflowing" leaves it half way and shows the cost of switching to BigInteger.
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class WideArithmeticBenchmark {
+    @Param({"small", "overflowing"})
+    public String shape;
+
+    private CompiledExpression compiled;
+    private IntStack stack;
+    private long[] scratch;
+
+    @Setup
+    public void setUp() {
+        StringBuilder expression = new StringBuilder("3");
+        for (int i = 0; i < 50; i++)
+            expression.append(shape.equals("small") ? " 7 + 2 -" : " 3 *");
+        compiled = new RPNCalculator().compile(expression);
+        stack = new IntStack();
+        scratch = new long[compiled.getScratchSize()];
+    }
+
+    @Benchmark
+    public int evaluateInt() {
+        return compiled.evaluate(stack);
+    }
+
+    // Primitive path: no allocation, but "overflowing" ends in an ArithmeticException
+    @Benchmark
+    public long evaluateExact() {
+        try {
+            return compiled.evaluateExact(scratch);
+        } catch (ArithmeticException e) {
+            return Long.MIN_VALUE;
+        }
+    }
+
+    @Benchmark
+    public BigInteger evaluateWide() {
+        return compiled.evaluateWide();
+    }
+}
@@ -0,0 +1,32 @@
+// Compiled expression that is interpreted until it has been evaluated threshold times,
+// then promoted to generated bytecode (see CompiledExpression.toBytecode) for all later calls.
+// Safe to share between threads; the invocation count is deliberately unsynchronised, so promotion may come a little late.
+public class AdaptiveExpression implements IntFormula {
+    private final CompiledExpression expression;
+    private final int threshold;
+    private int invocations;
+    private volatile IntFormula promoted;
+
+    public AdaptiveExpression(CompiledExpression expression, int threshold) {
+        this.expression = expression;
+        this.threshold = threshold;
+    }
+
+    @Override
+    public int evaluate(int[] values) {
+        IntFormula formula = promoted;
+        if (formula != null) return formula.evaluate(values);
+
+        if (++invocations >= threshold) return promote().evaluate(values);
+        return expression.evaluate(values);
+    }
+
+    public int evaluate() { return evaluate(new int[0]); }
+
+    public boolean isPromoted() { return promoted != null; }
+
+    private synchronized IntFormula promote() {
+        if (promoted == null) promoted = expression.toBytecode();
+        return promoted;
+    }
+}
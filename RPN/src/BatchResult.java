@@ -0,0 +1,35 @@
+// Outcome of RPNCalculator.evaluateAll: one value per input index, plus the failure for each index that did not evaluate
+public final class BatchResult {
+    private final int[] values;
+    private final IllegalArgumentException[] errors;
+    private final int failureCount;
+
+    BatchResult(int[] values, IllegalArgumentException[] errors) {
+        this.values = values;
+        this.errors = errors;
+
+        int failures = 0;
+        for (IllegalArgumentException error : errors)
+            if (error != null) failures++;
+        this.failureCount = failures;
+    }
+
+    public int size() { return values.length; }
+
+    public boolean isSuccess(int index) { return errors[index] == null; }
+
+    // Result of the expression at the given index, rethrowing its failure if it did not evaluate
+    public int getValue(int index) {
+        if (errors[index] != null)
+            throw new IllegalArgumentException("Expression " + index + " failed: " + errors[index].getMessage(), errors[index]);
+        return values[index];
+    }
+
+    // Failure of the expression at the given index, or null if it evaluated
+    public IllegalArgumentException getError(int index) { return errors[index]; }
+
+    // Raw results indexed like the input; entries of failed expressions are 0
+    public int[] getValues() { return values; }
+
+    public int getFailureCount() { return failureCount; }
+}
@@ -0,0 +1,35 @@
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+// Reusable CharSequence view over a range of a ByteBuffer holding ASCII text.
+// Lets the tokenizer read bytes in place instead of decoding every line into a String.
+public class ByteCharSequence implements CharSequence {
+    private ByteBuffer buffer;
+    private int start;
+    private int end;
+
+    // Point the view at bytes [start, end) of the buffer, using absolute indices
+    public ByteCharSequence wrap(ByteBuffer buffer, int start, int end) {
+        this.buffer = buffer;
+        this.start = start;
+        this.end = end;
+        return this;
+    }
+
+    @Override
+    public int length() { return end - start; }
+
+    @Override
+    public char charAt(int index) { return (char) (buffer.get(start + index) & 0xFF); }
+
+    // Copies the bytes out; only used when a token has to be reported
+    @Override
+    public CharSequence subSequence(int from, int to) {
+        byte[] bytes = new byte[to - from];
+        buffer.get(start + from, bytes);
+        return new String(bytes, StandardCharsets.ISO_8859_1);
+    }
+
+    @Override
+    public String toString() { return subSequence(0, length()).toString(); }
+}
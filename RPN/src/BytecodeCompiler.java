@@ -0,0 +1,244 @@
+import Operators.AdditionOperator;
+import Operators.MultiplicationOperator;
+import Operators.Operator;
+import Operators.SubtractionOperator;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.HashMap;
+import java.util.Map;
+
+// Turns a CompiledExpression into a hidden class implementing IntFormula.
+// The generated evaluate method is straight-line bytecode (constants, array loads, iadd/isub/imul and
+// JVM locals for reused results) with no operand stack object, so the JIT can inline it like hand-written arithmetic.
+// Programs using operators other than the built-in ones fall back to interpretation.
+// The number of variable values is checked before the generated code runs, with the same error as CompiledExpression.
+final class BytecodeCompiler {
+    private static final String CLASS_NAME = "GeneratedFormula";
+    private static final int MAX_CODE_LENGTH = 65535;
+    // Locals 0 and 1 hold this and the values array; program locals follow and must fit a one-byte index
+    private static final int FIRST_LOCAL = 2;
+    private static final int MAX_LOCALS = 256;
+
+    // Class file version 52 (Java 8) needs no stack map frames for code without branches
+    private static final int CLASS_VERSION = 52;
+    private static final int ACC_PUBLIC = 0x0001;
+    private static final int ACC_FINAL = 0x0010;
+    private static final int ACC_SUPER = 0x0020;
+
+    // Opcodes of the JVM instructions that are emitted
+    private static final int ICONST_0 = 0x03;
+    private static final int BIPUSH = 0x10;
+    private static final int SIPUSH = 0x11;
+    private static final int LDC_W = 0x13;
+    private static final int ILOAD = 0x15;
+    private static final int ALOAD_0 = 0x2a;
+    private static final int ALOAD_1 = 0x2b;
+    private static final int IALOAD = 0x2e;
+    private static final int ISTORE = 0x36;
+    private static final int DUP = 0x59;
+    private static final int IADD = 0x60;
+    private static final int ISUB = 0x64;
+    private static final int IMUL = 0x68;
+    private static final int IRETURN = 0xac;
+    private static final int RETURN = 0xb1;
+    private static final int INVOKESPECIAL = 0xb7;
+
+    private BytecodeCompiler() {}
+
+    static IntFormula compile(CompiledExpression expression) {
+        try {
+            byte[] classFile = generate(expression);
+            if (classFile == null) return expression::evaluate;
+
+            MethodHandles.Lookup lookup = MethodHandles.lookup().defineHiddenClass(classFile, true);
+            IntFormula generated = (IntFormula) lookup.findConstructor(lookup.lookupClass(), MethodType.methodType(void.class)).invoke();
+            return values -> {
+                expression.checkVariableCount(values.length);
+                return generated.evaluate(values);
+            };
+        } catch (Throwable e) {
+            throw new IllegalStateException("Could not load generated formula", e);
+        }
+    }
+
+    // Class file for the expression, or null if it cannot be expressed with plain int instructions
+    private static byte[] generate(CompiledExpression expression) throws IOException {
+        int maxLocals = FIRST_LOCAL + expression.getLocalCount();
+        if (maxLocals > MAX_LOCALS) return null;
+
+        ConstantPool pool = new ConstantPool();
+        ByteArrayOutputStream code = new ByteArrayOutputStream();
+
+        for (int pc = 0; pc < expression.length(); pc++) {
+            int operand = expression.operand(pc);
+            switch (expression.opcode(pc)) {
+                case CompiledExpression.PUSH -> pushInt(code, pool, operand);
+                case CompiledExpression.LOAD -> {
+                    code.write(ALOAD_1);
+                    pushInt(code, pool, operand);
+                    code.write(IALOAD);
+                }
+                case CompiledExpression.STORE -> {
+                    code.write(DUP);
+                    code.write(ISTORE);
+                    code.write(FIRST_LOCAL + operand);
+                }
+                case CompiledExpression.LOAD_LOCAL -> {
+                    code.write(ILOAD);
+                    code.write(FIRST_LOCAL + operand);
+                }
+                default -> {
+                    int instruction = arithmeticInstruction(expression.operator(operand));
+                    if (instruction < 0) return null;
+                    code.write(instruction);
+                }
+            }
+        }
+        code.write(IRETURN);
+        if (code.size() > MAX_CODE_LENGTH) return null;
+
+        int thisClass = pool.classRef(CLASS_NAME);
+        int superClass = pool.classRef("java/lang/Object");
+        int formulaInterface = pool.classRef("IntFormula");
+        int superConstructor = pool.methodRef(superClass, "<init>", "()V");
+        int constructorName = pool.utf8("<init>");
+        int constructorType = pool.utf8("()V");
+        int evaluateName = pool.utf8("evaluate");
+        int evaluateType = pool.utf8("([I)I");
+        int codeAttribute = pool.utf8("Code");
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeInt(0xCAFEBABE);
+        out.writeShort(0);
+        out.writeShort(CLASS_VERSION);
+        pool.writeTo(out);
+        out.writeShort(ACC_PUBLIC | ACC_FINAL | ACC_SUPER);
+        out.writeShort(thisClass);
+        out.writeShort(superClass);
+        out.writeShort(1);
+        out.writeShort(formulaInterface);
+        out.writeShort(0); // fields
+        out.writeShort(2); // methods
+
+        byte[] constructorCode = {(byte) ALOAD_0, (byte) INVOKESPECIAL,
+                (byte) (superConstructor >> 8), (byte) superConstructor, (byte) RETURN};
+        writeMethod(out, constructorName, constructorType, codeAttribute, 1, 1, constructorCode);
+        // A variable load needs the array and the index on top of the deepest expression stack
+        writeMethod(out, evaluateName, evaluateType, codeAttribute, expression.getMaxDepth() + 2, maxLocals, code.toByteArray());
+
+        out.writeShort(0); // class attributes
+        return bytes.toByteArray();
+    }
+
+    private static void writeMethod(DataOutputStream out, int name, int descriptor, int codeAttribute,
+                                    int maxStack, int maxLocals, byte[] code) throws IOException {
+        out.writeShort(ACC_PUBLIC);
+        out.writeShort(name);
+        out.writeShort(descriptor);
+        out.writeShort(1);
+        out.writeShort(codeAttribute);
+        out.writeInt(12 + code.length);
+        out.writeShort(maxStack);
+        out.writeShort(maxLocals);
+        out.writeInt(code.length);
+        out.write(code);
+        out.writeShort(0); // exception table
+        out.writeShort(0); // code attributes
+    }
+
+    private static int arithmeticInstruction(Operator operator) {
+        if (operator instanceof AdditionOperator) return IADD;
+        if (operator instanceof SubtractionOperator) return ISUB;
+        if (operator instanceof MultiplicationOperator) return IMUL;
+        return -1;
+    }
+
+    private static void pushInt(ByteArrayOutputStream code, ConstantPool pool, int value) {
+        if (value >= -1 && value <= 5) code.write(ICONST_0 + value);
+        else if (value >= Byte.MIN_VALUE && value <= Byte.MAX_VALUE) {
+            code.write(BIPUSH);
+            code.write(value);
+        } else if (value >= Short.MIN_VALUE && value <= Short.MAX_VALUE) {
+            code.write(SIPUSH);
+            code.write(value >> 8);
+            code.write(value);
+        } else {
+            int index = pool.integer(value);
+            code.write(LDC_W);
+            code.write(index >> 8);
+            code.write(index);
+        }
+    }
+
+    // Deduplicating constant pool, written out in the order entries were added
+    private static final class ConstantPool {
+        private static final int UTF8 = 1;
+        private static final int INTEGER = 3;
+        private static final int CLASS = 7;
+        private static final int METHOD_REF = 10;
+        private static final int NAME_AND_TYPE = 12;
+
+        private final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        private final DataOutputStream entries = new DataOutputStream(bytes);
+        private final Map<String, Integer> indices = new HashMap<>();
+        private int count = 1;
+
+        int utf8(String value) throws IOException {
+            Integer index = indices.get("U" + value);
+            if (index != null) return index;
+            entries.writeByte(UTF8);
+            entries.writeUTF(value);
+            return register("U" + value);
+        }
+
+        int integer(int value) {
+            Integer index = indices.get("I" + value);
+            if (index != null) return index;
+            try {
+                entries.writeByte(INTEGER);
+                entries.writeInt(value);
+            } catch (IOException e) {
+                throw new IllegalStateException(e);
+            }
+            return register("I" + value);
+        }
+
+        int classRef(String internalName) throws IOException {
+            int name = utf8(internalName);
+            Integer index = indices.get("C" + internalName);
+            if (index != null) return index;
+            entries.writeByte(CLASS);
+            entries.writeShort(name);
+            return register("C" + internalName);
+        }
+
+        int methodRef(int owner, String name, String descriptor) throws IOException {
+            int nameIndex = utf8(name);
+            int descriptorIndex = utf8(descriptor);
+            entries.writeByte(NAME_AND_TYPE);
+            entries.writeShort(nameIndex);
+            entries.writeShort(descriptorIndex);
+            int nameAndType = count++;
+
+            entries.writeByte(METHOD_REF);
+            entries.writeShort(owner);
+            entries.writeShort(nameAndType);
+            return count++;
+        }
+
+        void writeTo(DataOutputStream out) throws IOException {
+            out.writeShort(count);
+            bytes.writeTo(out);
+        }
+
+        private int register(String key) {
+            indices.put(key, count);
+            return count++;
+        }
+    }
+}
@@ -0,0 +1,208 @@
+import Operators.Operator;
+
+import java.math.BigInteger;
+import java.util.Arrays;
+
+// Immutable, pre-validated RPN program produced by RPNCalculator.compile.
+// Instructions are stored as flat opcode/operand arrays so evaluation does no tokenizing or map lookups
+// and the instance can be shared freely between threads.
+public final class CompiledExpression {
+    static final byte PUSH = 0;
+    static final byte APPLY = 1;
+    static final byte LOAD = 2;
+    static final byte STORE = 3;       // copy the top value into a local, leaving it on the stack
+    static final byte LOAD_LOCAL = 4;
+
+    // Rows processed per pass in evaluateColumns, small enough for the scratch columns to stay in cache
+    private static final int BLOCK_SIZE = 1024;
+    private static final int[] NO_VALUES = new int[0];
+    // Scratch stack for the overloads without one; it is grown by reserve and then reused by every program on the thread
+    private static final ThreadLocal<IntStack> SCRATCH = ThreadLocal.withInitial(IntStack::new);
+
+    private final byte[] opcodes;
+    // Literal value for PUSH, index into operators for APPLY, variable index for LOAD, local index for STORE and LOAD_LOCAL
+    private final int[] operands;
+    private final Operator[] operators;
+    private final String[] variables;
+    private final int maxDepth;
+    private final int localCount;
+
+    CompiledExpression(byte[] opcodes, int[] operands, Operator[] operators, String[] variables, int maxDepth, int localCount) {
+        this.opcodes = opcodes;
+        this.operands = operands;
+        this.operators = operators;
+        this.variables = variables;
+        this.maxDepth = maxDepth;
+        this.localCount = localCount;
+    }
+
+    // Run the program on the calling thread's scratch stack; safe to call from any thread and does not allocate
+    public int evaluate() {
+        return evaluate(SCRATCH.get(), NO_VALUES);
+    }
+
+    // Run the program on a caller-owned stack, which is cleared first and can be reused to avoid allocation
+    public int evaluate(IntStack stack) {
+        return evaluate(stack, NO_VALUES);
+    }
+
+    // Run the program with the given variable values, indexed like getVariables, on the thread's scratch stack
+    public int evaluate(int[] values) {
+        return evaluate(SCRATCH.get(), values);
+    }
+
+    // The stack depth was computed at compile time, so the stack is sized once and no operand checks are needed.
+    // Locals live in the slots right above the deepest stack position.
+    public int evaluate(IntStack stack, int[] values) {
+        checkVariableCount(values.length);
+        int[] slots = stack.reserve(maxDepth + localCount);
+        int size = 0;
+        for (int pc = 0; pc < opcodes.length; pc++) {
+            byte opcode = opcodes[pc];
+            if (opcode == PUSH) slots[size++] = operands[pc];
+            else if (opcode == LOAD) slots[size++] = values[operands[pc]];
+            else if (opcode == APPLY) {
+                size--;
+                slots[size - 1] = operators[operands[pc]].apply(slots[size - 1], slots[size]);
+            } else if (opcode == STORE) slots[maxDepth + operands[pc]] = slots[size - 1];
+            else slots[size++] = slots[maxDepth + operands[pc]];
+        }
+        return slots[0];
+    }
+
+    public BigInteger evaluateWide() { return evaluateWide(NO_VALUES); }
+
+    // Overflow-safe evaluation: runs on long with exact arithmetic and, only if a result overflows,
+    // finishes the rest of the program on BigInteger from that instruction on
+    public BigInteger evaluateWide(int[] values) {
+        checkVariableCount(values.length);
+        long[] slots = new long[getScratchSize()];
+        int overflowAt = runExact(slots, values);
+        if (overflowAt < 0) return BigInteger.valueOf(slots[0]);
+        return evaluateBig(overflowAt, slots, depthBefore(overflowAt), values);
+    }
+
+    public long evaluateExact(long[] scratch) { return evaluateExact(scratch, NO_VALUES); }
+
+    // Primitive overflow-checked evaluation on a caller-owned scratch array of at least getScratchSize() longs.
+    // Allocates nothing; throws ArithmeticException where evaluateWide would have switched to BigInteger.
+    public long evaluateExact(long[] scratch, int[] values) {
+        checkVariableCount(values.length);
+        if (scratch.length < getScratchSize())
+            throw new IllegalArgumentException("Scratch has " + scratch.length + " slots, expected " + getScratchSize());
+        if (runExact(scratch, values) >= 0) throw new ArithmeticException("long overflow");
+        return scratch[0];
+    }
+
+    // Run the program on long with exact arithmetic; returns -1 when done, or the pc of the APPLY that overflowed,
+    // in which case slots still hold the state from just before that instruction
+    private int runExact(long[] slots, int[] values) {
+        int size = 0;
+        for (int pc = 0; pc < opcodes.length; pc++) {
+            byte opcode = opcodes[pc];
+            if (opcode == PUSH) slots[size++] = operands[pc];
+            else if (opcode == LOAD) slots[size++] = values[operands[pc]];
+            else if (opcode == APPLY) {
+                try {
+                    slots[size - 2] = operators[operands[pc]].applyExact(slots[size - 2], slots[size - 1]);
+                } catch (ArithmeticException e) {
+                    return pc;
+                }
+                size--;
+            } else if (opcode == STORE) slots[maxDepth + operands[pc]] = slots[size - 1];
+            else slots[size++] = slots[maxDepth + operands[pc]];
+        }
+        return -1;
+    }
+
+    // Stack depth just before the instruction at pc; only needed on the rare switch to BigInteger
+    private int depthBefore(int pc) {
+        int size = 0;
+        for (int i = 0; i < pc; i++) {
+            if (opcodes[i] == APPLY) size--;
+            else if (opcodes[i] != STORE) size++;
+        }
+        return size;
+    }
+
+    // Continue evaluateWide on BigInteger, starting with the instruction at pc that overflowed
+    private BigInteger evaluateBig(int start, long[] longSlots, int size, int[] values) {
+        BigInteger[] slots = new BigInteger[longSlots.length];
+        for (int i = 0; i < size; i++) slots[i] = BigInteger.valueOf(longSlots[i]);
+        for (int i = maxDepth; i < slots.length; i++) slots[i] = BigInteger.valueOf(longSlots[i]);
+
+        for (int pc = start; pc < opcodes.length; pc++) {
+            byte opcode = opcodes[pc];
+            if (opcode == PUSH) slots[size++] = BigInteger.valueOf(operands[pc]);
+            else if (opcode == LOAD) slots[size++] = BigInteger.valueOf(values[operands[pc]]);
+            else if (opcode == APPLY) {
+                size--;
+                slots[size - 1] = operators[operands[pc]].apply(slots[size - 1], slots[size]);
+            } else if (opcode == STORE) slots[maxDepth + operands[pc]] = slots[size - 1];
+            else slots[size++] = slots[maxDepth + operands[pc]];
+        }
+        return slots[0];
+    }
+
+    // Evaluate the program once per row: columns holds one array per variable (indexed like getVariables)
+    // and row i of the result is computed from element i of every column.
+    // Rows are processed in blocks with whole-column operator applications instead of one interpretation per row.
+    public void evaluateColumns(int[][] columns, int[] result) {
+        checkVariableCount(columns.length);
+        int rows = result.length;
+        for (int[] column : columns)
+            if (column.length < rows)
+                throw new IllegalArgumentException("Column has " + column.length + " values, expected " + rows);
+
+        int[][] slots = new int[maxDepth + localCount][Math.min(BLOCK_SIZE, rows)];
+        for (int offset = 0; offset < rows; offset += BLOCK_SIZE) {
+            int length = Math.min(BLOCK_SIZE, rows - offset);
+            int size = 0;
+
+            for (int pc = 0; pc < opcodes.length; pc++) {
+                byte opcode = opcodes[pc];
+                if (opcode == PUSH) Arrays.fill(slots[size++], 0, length, operands[pc]);
+                else if (opcode == LOAD) System.arraycopy(columns[operands[pc]], offset, slots[size++], 0, length);
+                else if (opcode == APPLY) {
+                    size--;
+                    operators[operands[pc]].applyAll(slots[size - 1], slots[size], slots[size - 1], length);
+                } else if (opcode == STORE) System.arraycopy(slots[size - 1], 0, slots[maxDepth + operands[pc]], 0, length);
+                else System.arraycopy(slots[maxDepth + operands[pc]], 0, slots[size++], 0, length);
+            }
+            System.arraycopy(slots[0], 0, result, offset, length);
+        }
+    }
+
+    // Generate a hidden class that evaluates this program as straight-line bytecode.
+    // Worth it for formulas evaluated very often, since generating and loading the class is costly.
+    public IntFormula toBytecode() { return BytecodeCompiler.compile(this); }
+
+    // Names of the variables the program reads, in order of first appearance
+    public String[] getVariables() { return variables.clone(); }
+
+    public int length() { return opcodes.length; }
+
+    public int getMaxDepth() { return maxDepth; }
+
+    // Number of intermediate results kept for reuse, non-zero only for optimized programs
+    public int getLocalCount() { return localCount; }
+
+    // Number of slots evaluateExact needs in its scratch array
+    public int getScratchSize() { return maxDepth + localCount; }
+
+    // Run the optimizer over this program, see ExpressionOptimizer
+    public CompiledExpression optimize() { return ExpressionOptimizer.optimize(this); }
+
+    byte opcode(int pc) { return opcodes[pc]; }
+
+    int operand(int pc) { return operands[pc]; }
+
+    Operator operator(int index) { return operators[index]; }
+
+    int variableCount() { return variables.length; }
+
+    void checkVariableCount(int count) {
+        if (count != variables.length)
+            throw new IllegalArgumentException("Expected " + variables.length + " variable values, got " + count);
+    }
+}
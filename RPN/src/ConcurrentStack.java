@@ -0,0 +1,48 @@
+import java.util.concurrent.atomic.AtomicReference;
+
+// Lock-free variant of Stack for sharing between threads (Treiber stack).
+// push and pop swing the head reference with compare-and-set and retry on contention, so no thread ever blocks.
+public class ConcurrentStack<T> {
+    private static final class Node<T> {
+        final T value;
+        final Node<T> next;
+
+        Node(T value, Node<T> next) {
+            this.value = value;
+            this.next = next;
+        }
+    }
+
+    private final AtomicReference<Node<T>> head = new AtomicReference<>();
+
+    public void push(T value) {
+        Node<T> current = head.get();
+        Node<T> node = new Node<>(value, current);
+        while (!head.compareAndSet(current, node)) {
+            Thread.onSpinWait();
+            current = head.get();
+            node = new Node<>(value, current);
+        }
+    }
+
+    public T pop() {
+        while (true) {
+            Node<T> current = head.get();
+            if (current == null)
+                throw new IllegalStateException("Stack is empty");
+            if (head.compareAndSet(current, current.next))
+                return current.value;
+            Thread.onSpinWait();
+        }
+    }
+
+    public T peek() {
+        Node<T> current = head.get();
+        if (current == null)
+            throw new IllegalStateException("Stack is empty");
+        return current.value;
+    }
+
+    // A snapshot; another thread may change the stack right after the call
+    public boolean isEmpty() { return head.get() == null; }
+}
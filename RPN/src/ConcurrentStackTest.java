@@ -0,0 +1,61 @@
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ConcurrentStackTest {
+
+    private ConcurrentStack<Integer> stack;
+
+    @BeforeEach
+    void setUp() { stack = new ConcurrentStack<>(); }
+
+    @Test
+    void behavesLikeStackOnOneThread() {
+        assertTrue(stack.isEmpty());
+        stack.push(1);
+        stack.push(2);
+
+        assertEquals(2, stack.peek());
+        assertEquals(2, stack.pop());
+        assertEquals(1, stack.pop());
+        assertTrue(stack.isEmpty());
+        assertThrows(IllegalStateException.class, () -> stack.pop());
+        assertThrows(IllegalStateException.class, () -> stack.peek());
+    }
+
+    @Test
+    void concurrentPushAndPopLoseNothing() throws InterruptedException {
+        int threads = 8;
+        int perThread = 10_000;
+        AtomicLong poppedSum = new AtomicLong();
+        List<Thread> workers = new ArrayList<>();
+
+        for (int t = 0; t < threads; t++) {
+            int base = t * perThread;
+            workers.add(new Thread(() -> {
+                for (int i = 0; i < perThread; i++) {
+                    stack.push(base + i);
+                    // Every pop follows a push of the same thread, so the stack cannot run empty here
+                    if (i % 2 == 1) poppedSum.addAndGet(stack.pop());
+                }
+            }));
+        }
+        for (Thread worker : workers) worker.start();
+        for (Thread worker : workers) worker.join();
+
+        long remainingSum = 0;
+        int remaining = 0;
+        while (!stack.isEmpty()) {
+            remainingSum += stack.pop();
+            remaining++;
+        }
+
+        long n = (long) threads * perThread;
+        assertEquals(n / 2, remaining);
+        assertEquals(n * (n - 1) / 2, poppedSum.get() + remainingSum);
+    }
+}
@@ -0,0 +1,15 @@
+// Reason an expression could not be compiled or evaluated, kept alongside the message so failures can be counted by kind
+public class EvaluationException extends IllegalArgumentException {
+    public enum ErrorKind { EMPTY_EXPRESSION, INVALID_TOKEN, UNBOUND_VARIABLE, INSUFFICIENT_OPERANDS, TOO_MANY_OPERANDS, NO_RESULT }
+
+    private static final long serialVersionUID = 1L;
+
+    private final ErrorKind kind;
+
+    public EvaluationException(ErrorKind kind, String message) {
+        super(message);
+        this.kind = kind;
+    }
+
+    public ErrorKind getKind() { return kind; }
+}
@@ -0,0 +1,62 @@
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+// Counters fed by an RPNCalculator with metrics attached: evaluations, failures by kind, tokens processed,
+// the deepest operand stack seen and a latency histogram with power-of-two nanosecond buckets.
+// Evaluations slower than the threshold are also committed as SlowEvaluationEvent to Flight Recorder.
+// Safe to share between calculators on different threads.
+public class EvaluationMetrics {
+    private static final int BUCKETS = 64;
+
+    private final long slowThresholdNanos;
+    private final LongAdder evaluations = new LongAdder();
+    private final LongAdder tokens = new LongAdder();
+    private final LongAdder[] failures = new LongAdder[EvaluationException.ErrorKind.values().length];
+    private final LongAdder[] latencyBuckets = new LongAdder[BUCKETS];
+    private final AtomicInteger maxStackDepth = new AtomicInteger();
+
+    public EvaluationMetrics(long slowThresholdNanos) {
+        this.slowThresholdNanos = slowThresholdNanos;
+        for (int i = 0; i < failures.length; i++) failures[i] = new LongAdder();
+        for (int i = 0; i < BUCKETS; i++) latencyBuckets[i] = new LongAdder();
+    }
+
+    void record(CharSequence expression, int tokenCount, int stackDepth, long latencyNanos, EvaluationException failure) {
+        evaluations.increment();
+        tokens.add(tokenCount);
+        maxStackDepth.accumulateAndGet(stackDepth, Math::max);
+        latencyBuckets[bucketOf(latencyNanos)].increment();
+        if (failure != null) failures[failure.getKind().ordinal()].increment();
+
+        if (latencyNanos >= slowThresholdNanos) {
+            SlowEvaluationEvent event = new SlowEvaluationEvent();
+            if (event.isEnabled()) {
+                event.expressionLength = expression == null ? 0 : expression.length();
+                event.tokens = tokenCount;
+                event.stackDepth = stackDepth;
+                event.latency = latencyNanos;
+                event.failed = failure != null;
+                event.commit();
+            }
+        }
+    }
+
+    public long getEvaluations() { return evaluations.sum(); }
+
+    public long getFailures(EvaluationException.ErrorKind kind) { return failures[kind.ordinal()].sum(); }
+
+    public long getTokensProcessed() { return tokens.sum(); }
+
+    public int getMaxStackDepth() { return maxStackDepth.get(); }
+
+    // Bucket i counts evaluations that took at least 2^i and less than 2^(i+1) nanoseconds (bucket 0 also holds 0)
+    public long[] getLatencyHistogram() {
+        long[] snapshot = new long[BUCKETS];
+        for (int i = 0; i < BUCKETS; i++) snapshot[i] = latencyBuckets[i].sum();
+        return snapshot;
+    }
+
+    private static int bucketOf(long nanos) {
+        return nanos <= 1 ? 0 : 63 - Long.numberOfLeadingZeros(nanos);
+    }
+}
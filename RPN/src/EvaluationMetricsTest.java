@@ -0,0 +1,62 @@
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class EvaluationMetricsTest {
+
+    private RPNCalculator calculator;
+    private EvaluationMetrics metrics;
+
+    @BeforeEach
+    void setUp() {
+        calculator = new RPNCalculator();
+        metrics = new EvaluationMetrics(Long.MAX_VALUE);
+        calculator.setMetrics(metrics);
+    }
+
+    @Test
+    void countsEvaluationsTokensAndDepth() {
+        calculator.evaluate("1 2 3 * +");
+        calculator.evaluate("7 8 +");
+
+        assertEquals(2, metrics.getEvaluations());
+        assertEquals(8, metrics.getTokensProcessed());
+        assertEquals(3, metrics.getMaxStackDepth());
+
+        long recorded = 0;
+        for (long count : metrics.getLatencyHistogram()) recorded += count;
+        assertEquals(2, recorded);
+    }
+
+    @Test
+    void countsFailuresByKind() {
+        assertThrows(IllegalArgumentException.class, () -> calculator.evaluate("3 4 $"));
+        assertThrows(IllegalArgumentException.class, () -> calculator.evaluate("6 +"));
+        assertThrows(IllegalArgumentException.class, () -> calculator.evaluate("4 5"));
+
+        assertEquals(3, metrics.getEvaluations());
+        assertEquals(1, metrics.getFailures(EvaluationException.ErrorKind.INVALID_TOKEN));
+        assertEquals(1, metrics.getFailures(EvaluationException.ErrorKind.INSUFFICIENT_OPERANDS));
+        assertEquals(1, metrics.getFailures(EvaluationException.ErrorKind.TOO_MANY_OPERANDS));
+    }
+
+    @Test
+    void cacheHitsReportNoTokensOrDepth() {
+        RPNCalculator cached = new RPNCalculator(new RPNResultCache(16));
+        cached.setMetrics(metrics);
+        cached.evaluate("1 2 3 * +");
+        cached.evaluate("1  2 3 * +");
+
+        assertEquals(2, metrics.getEvaluations());
+        assertEquals(5, metrics.getTokensProcessed());
+        assertEquals(3, metrics.getMaxStackDepth());
+    }
+
+    @Test
+    void detachedMetricsStopCounting() {
+        calculator.setMetrics(null);
+        calculator.evaluate("1 2 +");
+        assertEquals(0, metrics.getEvaluations());
+    }
+}
@@ -0,0 +1,40 @@
+// Outcome of RPNCalculator.analyze: whether the expression is well formed, and the operand stack depth it needs.
+// For an invalid expression the counts cover the tokens read up to the problem.
+public final class ExpressionAnalysis {
+    private final EvaluationException.ErrorKind errorKind;
+    private final String message;
+    private final int tokenCount;
+    private final int maxDepth;
+    private final int balance;
+
+    private ExpressionAnalysis(EvaluationException.ErrorKind errorKind, String message, int tokenCount, int maxDepth, int balance) {
+        this.errorKind = errorKind;
+        this.message = message;
+        this.tokenCount = tokenCount;
+        this.maxDepth = maxDepth;
+        this.balance = balance;
+    }
+
+    static ExpressionAnalysis valid(int tokenCount, int maxDepth) {
+        return new ExpressionAnalysis(null, null, tokenCount, maxDepth, 1);
+    }
+
+    static ExpressionAnalysis invalid(EvaluationException.ErrorKind errorKind, String message, int tokenCount, int maxDepth, int balance) {
+        return new ExpressionAnalysis(errorKind, message, tokenCount, maxDepth, balance);
+    }
+
+    public boolean isValid() { return errorKind == null; }
+
+    // Kind of the first problem found, or null for a valid expression
+    public EvaluationException.ErrorKind getErrorKind() { return errorKind; }
+
+    public String getMessage() { return message; }
+
+    public int getTokenCount() { return tokenCount; }
+
+    // Deepest the operand stack gets while evaluating, which is the exact stack size evaluation needs
+    public int getMaxDepth() { return maxDepth; }
+
+    // Values left on the stack (operands pushed minus those consumed); 1 for a valid expression
+    public int getBalance() { return balance; }
+}
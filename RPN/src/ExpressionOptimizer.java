@@ -0,0 +1,211 @@
+import Operators.AdditionOperator;
+import Operators.MultiplicationOperator;
+import Operators.Operator;
+import Operators.SubtractionOperator;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+// Rewrites a compiled program into an equivalent one that does less work:
+// - operators applied to two constants are folded, but only when the exact result fits in an int,
+// - identities of the built-in operators are applied (x 0 +, 0 x +, x 0 -, x x -, x 1 *, 1 x *, x 0 *, 0 x *),
+// - identical sub-expressions are computed once, stored in a local and reloaded where they recur.
+// Integer arithmetic wraps and evaluating a validated program cannot fail, so every rewrite gives the same result;
+// a fold that would wrap is left as an instruction, so evaluateWide also sees the same exact arithmetic.
+// Works iteratively, so machine-generated programs of any depth are safe to optimize.
+final class ExpressionOptimizer {
+
+    // Node of the expression DAG; children are canonical, so structural equality only compares their identity
+    private static final class Node {
+        final byte kind;        // PUSH, LOAD or APPLY
+        final int value;        // constant for PUSH, variable index for LOAD
+        final Operator operator;
+        final Node left;
+        final Node right;
+        int uses;
+        int local = -1;
+        boolean expanded;
+        boolean emitted;
+
+        Node(byte kind, int value, Operator operator, Node left, Node right) {
+            this.kind = kind;
+            this.value = value;
+            this.operator = operator;
+            this.left = left;
+            this.right = right;
+        }
+
+        boolean isConstant(int constant) { return kind == CompiledExpression.PUSH && value == constant; }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Node)) return false;
+            Node other = (Node) o;
+            return kind == other.kind && value == other.value && operator == other.operator
+                    && left == other.left && right == other.right;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(kind, value, System.identityHashCode(operator),
+                    System.identityHashCode(left), System.identityHashCode(right));
+        }
+    }
+
+    private final Map<Node, Node> canonical = new HashMap<>();
+    private final List<Node> created = new ArrayList<>();   // canonical nodes, children always before parents
+
+    private ExpressionOptimizer() {}
+
+    static CompiledExpression optimize(CompiledExpression expression) {
+        ExpressionOptimizer optimizer = new ExpressionOptimizer();
+        Node root = optimizer.buildGraph(expression);
+        optimizer.countUses(root);
+        return optimizer.emit(root, expression.getVariables());
+    }
+
+    // Replay the program on a stack of nodes instead of values
+    private Node buildGraph(CompiledExpression expression) {
+        Node[] stack = new Node[expression.getMaxDepth() + expression.getLocalCount()];
+        Node[] locals = new Node[expression.getLocalCount()];
+        int size = 0;
+
+        for (int pc = 0; pc < expression.length(); pc++) {
+            int operand = expression.operand(pc);
+            switch (expression.opcode(pc)) {
+                case CompiledExpression.PUSH -> stack[size++] = leaf(CompiledExpression.PUSH, operand);
+                case CompiledExpression.LOAD -> stack[size++] = leaf(CompiledExpression.LOAD, operand);
+                case CompiledExpression.STORE -> locals[operand] = stack[size - 1];
+                case CompiledExpression.LOAD_LOCAL -> stack[size++] = locals[operand];
+                default -> {
+                    size--;
+                    stack[size - 1] = apply(expression.operator(operand), stack[size - 1], stack[size]);
+                }
+            }
+        }
+        return stack[0];
+    }
+
+    private Node leaf(byte kind, int value) {
+        return intern(new Node(kind, value, null, null, null));
+    }
+
+    private Node apply(Operator operator, Node left, Node right) {
+        if (left.kind == CompiledExpression.PUSH && right.kind == CompiledExpression.PUSH) {
+            Node folded = fold(operator, left.value, right.value);
+            if (folded != null) return folded;
+        }
+
+        if (operator instanceof AdditionOperator) {
+            if (right.isConstant(0)) return left;
+            if (left.isConstant(0)) return right;
+        } else if (operator instanceof SubtractionOperator) {
+            if (right.isConstant(0)) return left;
+            if (left == right) return leaf(CompiledExpression.PUSH, 0);
+        } else if (operator instanceof MultiplicationOperator) {
+            if (right.isConstant(1)) return left;
+            if (left.isConstant(1)) return right;
+            if (left.isConstant(0) || right.isConstant(0)) return leaf(CompiledExpression.PUSH, 0);
+        }
+        return intern(new Node(CompiledExpression.APPLY, 0, operator, left, right));
+    }
+
+    // Constant result of the operator, or null when it overflows an int and must be computed at evaluation time
+    private Node fold(Operator operator, int left, int right) {
+        long exact;
+        try {
+            exact = operator.applyExact(left, right);
+        } catch (ArithmeticException e) {
+            return null;
+        }
+        return exact == (int) exact ? leaf(CompiledExpression.PUSH, (int) exact) : null;
+    }
+
+    private Node intern(Node node) {
+        Node existing = canonical.putIfAbsent(node, node);
+        if (existing != null) return existing;
+        created.add(node);
+        return node;
+    }
+
+    // Count how often each node reachable from the root is referenced; parents always come after their children
+    private void countUses(Node root) {
+        root.uses = 1;
+        for (int i = created.size() - 1; i >= 0; i--) {
+            Node node = created.get(i);
+            if (node.uses == 0 || node.kind != CompiledExpression.APPLY) continue;
+            node.left.uses++;
+            node.right.uses++;
+        }
+    }
+
+    // Emit the DAG in evaluation order; an operation used more than once is stored on first use and reloaded after
+    private CompiledExpression emit(Node root, String[] variables) {
+        List<Operator> operators = new ArrayList<>();
+        int[] operands = new int[16];
+        byte[] opcodes = new byte[16];
+        int count = 0;
+        int depth = 0;
+        int maxDepth = 0;
+        int locals = 0;
+
+        // Explicit post-order walk: an operation is popped once to queue its children and once more to emit itself
+        ArrayDeque<Node> pending = new ArrayDeque<>();
+        pending.push(root);
+
+        while (!pending.isEmpty()) {
+            Node node = pending.pop();
+
+            if (count + 2 > opcodes.length) {
+                opcodes = Arrays.copyOf(opcodes, opcodes.length * 2);
+                operands = Arrays.copyOf(operands, operands.length * 2);
+            }
+
+            if (node.emitted) {
+                opcodes[count] = CompiledExpression.LOAD_LOCAL;
+                operands[count++] = node.local;
+                maxDepth = Math.max(maxDepth, ++depth);
+                continue;
+            }
+
+            if (node.kind != CompiledExpression.APPLY) {
+                opcodes[count] = node.kind;
+                operands[count++] = node.value;
+                maxDepth = Math.max(maxDepth, ++depth);
+                continue;
+            }
+
+            if (!node.expanded) {
+                node.expanded = true;
+                pending.push(node);
+                pending.push(node.right);
+                pending.push(node.left);
+                continue;
+            }
+
+            int index = operators.indexOf(node.operator);
+            if (index < 0) {
+                index = operators.size();
+                operators.add(node.operator);
+            }
+            opcodes[count] = CompiledExpression.APPLY;
+            operands[count++] = index;
+            depth--;
+
+            if (node.uses > 1) {
+                node.local = locals++;
+                node.emitted = true;
+                opcodes[count] = CompiledExpression.STORE;
+                operands[count++] = node.local;
+            }
+        }
+
+        return new CompiledExpression(Arrays.copyOf(opcodes, count), Arrays.copyOf(operands, count),
+                operators.toArray(new Operator[0]), variables, maxDepth, locals);
+    }
+}
@@ -0,0 +1,79 @@
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import java.math.BigInteger;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ExpressionOptimizerTest {
+
+    private RPNCalculator calculator;
+
+    @BeforeEach
+    void setUp() { calculator = new RPNCalculator(); }
+
+    @Test
+    void foldsConstantSubExpressions() {
+        CompiledExpression optimized = calculator.compile("2 3 * 4 + x *").optimize();
+        assertEquals(3, optimized.length());
+        assertEquals(50, optimized.evaluate(new int[] {5}));
+    }
+
+    @Test
+    void keepsOverflowingConstantsForWideEvaluation() {
+        CompiledExpression optimized = calculator.compile("2147483647 1 +").optimize();
+        assertEquals(BigInteger.valueOf(2147483648L), optimized.evaluateWide());
+        assertEquals(Integer.MIN_VALUE, optimized.evaluate());
+
+        CompiledExpression withVariable = calculator.compile("x 2147483647 1 + +").optimize();
+        assertEquals(BigInteger.valueOf(2147483648L), withVariable.evaluateWide(new int[] {0}));
+        assertEquals(Integer.MIN_VALUE, withVariable.evaluate(new int[] {0}));
+
+        // Constants that fit are still folded
+        assertEquals(1, calculator.compile("65536 32767 *").optimize().length());
+    }
+
+    @Test
+    void appliesIdentities() {
+        assertEquals(1, calculator.compile("x 0 + 1 * 0 -").optimize().length());
+        assertEquals(1, calculator.compile("x y + x y + -").optimize().length());
+        assertEquals(1, calculator.compile("x y * 0 *").optimize().length());
+    }
+
+    @Test
+    void reusesCommonSubExpressions() {
+        CompiledExpression compiled = calculator.compile("x y + 3 * x y + 3 * *");
+        CompiledExpression optimized = compiled.optimize();
+
+        assertEquals(1, optimized.getLocalCount());
+        assertTrue(optimized.length() < compiled.length());
+        int[] values = {4, -9};
+        assertEquals(compiled.evaluate(values), optimized.evaluate(values));
+        assertEquals(compiled.evaluate(values), optimized.toBytecode().evaluate(values));
+
+        int[] result = new int[3];
+        optimized.evaluateColumns(new int[][] {{1, 2, 3}, {4, 5, 6}}, result);
+        assertArrayEquals(new int[] {225, 441, 729}, result);
+    }
+
+    @Test
+    void randomExpressionsKeepTheirValue() {
+        Random random = new Random(42);
+        String[] atoms = {"x", "y", "0", "1", "2", "-3", "x y +"};
+        String[] operators = {"+", "-", "*"};
+
+        for (int round = 0; round < 200; round++) {
+            StringBuilder expression = new StringBuilder(atoms[random.nextInt(atoms.length)]);
+            for (int i = 0; i < 12; i++) {
+                expression.append(' ').append(atoms[random.nextInt(atoms.length)]);
+                expression.append(' ').append(operators[random.nextInt(operators.length)]);
+            }
+
+            CompiledExpression compiled = calculator.compile(expression);
+            CompiledExpression optimized = compiled.optimize();
+            int[] values = new int[compiled.getVariables().length];
+            for (int i = 0; i < values.length; i++) values[i] = random.nextInt(100) - 50;
+            assertEquals(compiled.evaluate(values), optimized.evaluate(values), expression.toString());
+        }
+    }
+}
@@ -0,0 +1,87 @@
+import Operators.Operator;
+
+import java.nio.CharBuffer;
+import java.util.Arrays;
+
+// Evaluates one expression whose text arrives in chunks, applying each token as soon as its end is seen.
+// Only the operand stack and the token being read are held, so memory depends on stack depth and token
+// length, never on the length of the expression. Tokens may be split across chunks.
+// Call finish after the last chunk to get the result, after which the evaluator starts a new expression.
+// A failing token is reported by the feed call that completes it; the rest of that expression is then discarded
+// and finish throws the same failure, unless reset is called first.
+public class IncrementalEvaluator {
+    private final RPNTokenizer tokenizer;
+    private final IntStack stack = new IntStack();
+    private char[] token = new char[16];
+    private CharBuffer tokenView = CharBuffer.wrap(token);
+    private int tokenLength;
+    private boolean seenToken;
+    private EvaluationException failure;
+
+    IncrementalEvaluator(Operator[] operators) { this.tokenizer = new RPNTokenizer(operators); }
+
+    public void feed(CharSequence chunk) {
+        if (failure != null) return;
+        for (int i = 0; i < chunk.length(); i++) accept(chunk.charAt(i));
+    }
+
+    public void feed(char[] chunk) { feed(chunk, 0, chunk.length); }
+
+    public void feed(char[] chunk, int offset, int length) {
+        if (failure != null) return;
+        for (int i = offset; i < offset + length; i++) accept(chunk[i]);
+    }
+
+    // Complete the expression and return its value
+    public int finish() {
+        try {
+            if (failure != null) throw failure;
+            endToken();
+            if (!seenToken)
+                throw new EvaluationException(EvaluationException.ErrorKind.EMPTY_EXPRESSION, "Expression cannot be empty");
+            return RPNCalculator.result(stack);
+        } finally {
+            reset();
+        }
+    }
+
+    // Discard the expression read so far
+    public void reset() {
+        failure = null;
+        stack.clear();
+        tokenLength = 0;
+        seenToken = false;
+    }
+
+    // Current operand stack depth, for callers watching memory use
+    public int getDepth() { return stack.size(); }
+
+    private void accept(char c) {
+        if (RPNTokenizer.isWhitespace(c)) {
+            endToken();
+            return;
+        }
+
+        if (tokenLength == token.length) {
+            token = Arrays.copyOf(token, token.length * 2);
+            tokenView = CharBuffer.wrap(token);
+        }
+        token[tokenLength++] = c;
+    }
+
+    private void endToken() {
+        if (tokenLength == 0) return;
+
+        tokenizer.reset(tokenView, 0, tokenLength);
+        tokenLength = 0;
+        seenToken = true;
+        try {
+            RPNCalculator.step(tokenizer.next(), tokenizer, stack);
+        } catch (EvaluationException e) {
+            // Drop what was read so far and ignore further input until finish or reset
+            stack.clear();
+            failure = e;
+            throw e;
+        }
+    }
+}
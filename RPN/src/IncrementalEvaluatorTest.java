@@ -0,0 +1,58 @@
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class IncrementalEvaluatorTest {
+
+    private IncrementalEvaluator evaluator;
+
+    @BeforeEach
+    void setUp() { evaluator = new RPNCalculator().newIncrementalEvaluator(); }
+
+    @Test
+    void tokensMaySpanChunks() {
+        evaluator.feed("7 ");
+        evaluator.feed(new char[] {'1', '2'});
+        evaluator.feed("3 + 9");
+        evaluator.feed(" *");
+
+        assertEquals((7 + 123) * 9, evaluator.finish());
+    }
+
+    @Test
+    void evaluatorIsReusableAfterFinishAndFailure() {
+        evaluator.feed("1 2 +");
+        assertEquals(3, evaluator.finish());
+
+        // The rest of a failed expression must not be read as the start of a new one
+        assertThrows(IllegalArgumentException.class, () -> evaluator.feed("1 + "));
+        evaluator.feed("5 6 *");
+        EvaluationException failure = assertThrows(EvaluationException.class, () -> evaluator.finish());
+        assertEquals(EvaluationException.ErrorKind.INSUFFICIENT_OPERANDS, failure.getKind());
+
+        evaluator.feed("5 6 *");
+        assertEquals(30, evaluator.finish());
+
+        assertThrows(IllegalArgumentException.class, () -> evaluator.finish());
+    }
+
+    @Test
+    void resetDiscardsFailedExpression() {
+        assertThrows(IllegalArgumentException.class, () -> evaluator.feed("3 4 $ "));
+        evaluator.feed("9 +");
+        evaluator.reset();
+        evaluator.feed("2 3 +");
+        assertEquals(5, evaluator.finish());
+    }
+
+    @Test
+    void memoryFollowsStackDepthNotLength() {
+        evaluator.feed("0");
+        for (int i = 0; i < 100_000; i++) {
+            evaluator.feed(" 1 +");
+            assertTrue(evaluator.getDepth() <= 2);
+        }
+        assertEquals(100_000, evaluator.finish());
+    }
+}
@@ -0,0 +1,5 @@
+// Expression over int variables, indexed like CompiledExpression.getVariables
+@FunctionalInterface
+public interface IntFormula {
+    int evaluate(int[] values);
+}
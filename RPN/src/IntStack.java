@@ -0,0 +1,47 @@
+import java.util.Arrays;
+
+// Primitive int specialization of Stack, avoids boxing operands; intended to be cleared and reused between evaluations
+public class IntStack {
+    private int[] elements;
+    private int size;
+
+    public IntStack() { this(10); }
+
+    public IntStack(int initialCapacity) {
+        elements = new int[Math.max(initialCapacity, 1)];
+        size = 0;
+    }
+
+    public void push(int value) {
+        if (size == elements.length)
+            elements = Arrays.copyOf(elements, elements.length * 2); // Dynamic resizing
+        elements[size++] = value;
+    }
+
+    public int pop() {
+        if (size == 0)
+            throw new IllegalStateException("Stack is empty");
+        return elements[--size];
+    }
+
+    public int peek() {
+        if (size == 0)
+            throw new IllegalStateException("Stack is empty");
+        return elements[size - 1];
+    }
+
+    public boolean isEmpty() { return size == 0; }
+
+    public int size() { return size; }
+
+    // Empty the stack and hand out its backing array grown to at least capacity, for callers that
+    // already know the exact depth they need and manage the top index themselves
+    int[] reserve(int capacity) {
+        clear();
+        if (elements.length < capacity) elements = new int[capacity];
+        return elements;
+    }
+
+    // Drop all elements but keep the backing array, so the next evaluation does not allocate
+    public void clear() { size = 0; }
+}
@@ -0,0 +1,62 @@
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class IntStackTest {
+
+    private IntStack stack;
+
+    @BeforeEach
+    void setUp() { stack = new IntStack(); }
+
+    @Test
+    void newStackIsEmpty() { assertTrue(stack.isEmpty()); }
+
+    @Test
+    void pushAndPopMultipleElements() {
+        stack.push(1);
+        stack.push(2);
+        stack.push(3);
+
+        assertEquals(3, stack.pop());
+        assertEquals(2, stack.pop());
+        assertEquals(1, stack.pop());
+        assertTrue(stack.isEmpty());
+    }
+
+    @Test
+    void peekReturnsTopElement() {
+        stack.push(1);
+        stack.push(2);
+
+        assertEquals(2, stack.peek());
+        assertEquals(2, stack.peek()); // Verify peek doesn't remove the element
+        assertEquals(2, stack.size());
+    }
+
+    @Test
+    void popAndPeekEmptyStackThrowException() {
+        assertThrows(IllegalStateException.class, () -> stack.pop());
+        assertThrows(IllegalStateException.class, () -> stack.peek());
+    }
+
+    @Test
+    void resizeStackWhenFull() {
+        for (int i = 0; i < 15; i++)
+            stack.push(i);
+
+        assertEquals(14, stack.peek());
+        assertEquals(15, stack.size());
+    }
+
+    @Test
+    void clearEmptiesStackForReuse() {
+        stack.push(1);
+        stack.push(2);
+        stack.clear();
+
+        assertTrue(stack.isEmpty());
+        stack.push(3);
+        assertEquals(3, stack.pop());
+    }
+}
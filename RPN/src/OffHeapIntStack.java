@@ -0,0 +1,76 @@
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.ValueLayout;
+import java.util.Arrays;
+
+// Primitive int stack kept outside the Java heap, for evaluations too deep for an on-heap array.
+// Memory is taken from a confined Arena in fixed-size chunks: growing adds a chunk instead of copying
+// the contents, and all chunks are freed together when the stack is closed.
+// Like the Arena it lives in, an instance may only be used by the thread that created it.
+public class OffHeapIntStack implements AutoCloseable {
+    private static final int DEFAULT_CHUNK_SHIFT = 16; // 64K ints, 256 KiB per chunk
+
+    private final Arena arena = Arena.ofConfined();
+    private final int chunkShift;
+    private final long chunkMask;
+    private MemorySegment[] chunks = new MemorySegment[4];
+    private int chunkCount;
+    private long size;
+
+    public OffHeapIntStack() { this(DEFAULT_CHUNK_SHIFT); }
+
+    // Chunks hold 2^chunkShift elements
+    public OffHeapIntStack(int chunkShift) {
+        if (chunkShift < 1 || chunkShift > 28)
+            throw new IllegalArgumentException("Chunk shift must be between 1 and 28");
+        this.chunkShift = chunkShift;
+        this.chunkMask = (1L << chunkShift) - 1;
+    }
+
+    public void push(int value) {
+        int chunk = (int) (size >>> chunkShift);
+        if (chunk == chunkCount) addChunk();
+        chunks[chunk].setAtIndex(ValueLayout.JAVA_INT, size & chunkMask, value);
+        size++;
+    }
+
+    public int pop() {
+        if (size == 0)
+            throw new IllegalStateException("Stack is empty");
+        size--;
+        return chunks[(int) (size >>> chunkShift)].getAtIndex(ValueLayout.JAVA_INT, size & chunkMask);
+    }
+
+    public int peek() {
+        if (size == 0)
+            throw new IllegalStateException("Stack is empty");
+        long top = size - 1;
+        return chunks[(int) (top >>> chunkShift)].getAtIndex(ValueLayout.JAVA_INT, top & chunkMask);
+    }
+
+    public boolean isEmpty() { return size == 0; }
+
+    public long size() { return size; }
+
+    // Drop all elements; chunks stay allocated for reuse until close
+    public void clear() { size = 0; }
+
+    // Off-heap bytes currently held by the stack
+    public long reservedBytes() { return (long) chunkCount << chunkShift << 2; }
+
+    // Free all chunks at once; the stack cannot be used afterwards
+    @Override
+    public void close() {
+        arena.close();
+        chunks = null;
+        chunkCount = 0;
+        size = 0;
+    }
+
+    private void addChunk() {
+        if (chunks == null)
+            throw new IllegalStateException("Stack is closed");
+        if (chunkCount == chunks.length) chunks = Arrays.copyOf(chunks, chunkCount * 2);
+        chunks[chunkCount++] = arena.allocate(ValueLayout.JAVA_INT, 1L << chunkShift);
+    }
+}
@@ -0,0 +1,55 @@
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class OffHeapIntStackTest {
+
+    private OffHeapIntStack stack;
+
+    @BeforeEach
+    void setUp() { stack = new OffHeapIntStack(4); } // 16 elements per chunk to exercise chunk boundaries
+
+    @AfterEach
+    void tearDown() { stack.close(); }
+
+    @Test
+    void pushAndPopAcrossChunks() {
+        for (int i = 0; i < 100; i++)
+            stack.push(i);
+
+        assertEquals(100, stack.size());
+        assertEquals(99, stack.peek());
+        for (int i = 99; i >= 0; i--)
+            assertEquals(i, stack.pop());
+        assertTrue(stack.isEmpty());
+    }
+
+    @Test
+    void growsByChunksAndKeepsThemForReuse() {
+        for (int i = 0; i < 17; i++)
+            stack.push(i);
+        assertEquals(2 * 16 * Integer.BYTES, stack.reservedBytes());
+
+        stack.clear();
+        assertTrue(stack.isEmpty());
+        stack.push(7);
+        assertEquals(7, stack.pop());
+        assertEquals(2 * 16 * Integer.BYTES, stack.reservedBytes());
+    }
+
+    @Test
+    void popAndPeekEmptyStackThrowException() {
+        assertThrows(IllegalStateException.class, () -> stack.pop());
+        assertThrows(IllegalStateException.class, () -> stack.peek());
+    }
+
+    @Test
+    void closedStackCannotBeUsed() {
+        OffHeapIntStack closed = new OffHeapIntStack();
+        closed.push(1);
+        closed.close();
+        assertThrows(IllegalStateException.class, () -> closed.push(2));
+    }
+}
@@ -1,5 +1,7 @@
 package Operators;
 
+import java.math.BigInteger;
+
 public class AdditionOperator implements Operator {
     @Override
     public int apply(int a, int b) {
@@ -10,4 +12,16 @@ public class AdditionOperator implements Operator {
     public String getSymbol() {
         return "+";
     }
+
+    @Override
+    public void applyAll(int[] a, int[] b, int[] result, int length) {
+        for (int i = 0; i < length; i++)
+            result[i] = a[i] + b[i];
+    }
+
+    @Override
+    public long applyExact(long a, long b) { return Math.addExact(a, b); }
+
+    @Override
+    public BigInteger apply(BigInteger a, BigInteger b) { return a.add(b); }
 }
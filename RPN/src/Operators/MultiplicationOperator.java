@@ -1,9 +1,23 @@
 package Operators;
 
+import java.math.BigInteger;
+
 public class MultiplicationOperator implements Operator {
     @Override
     public int apply(int a, int b) { return a * b;     }
 
     @Override
     public String getSymbol() { return "*"; }
-}
\ No newline at end of file
+
+    @Override
+    public void applyAll(int[] a, int[] b, int[] result, int length) {
+        for (int i = 0; i < length; i++)
+            result[i] = a[i] * b[i];
+    }
+
+    @Override
+    public long applyExact(long a, long b) { return Math.multiplyExact(a, b); }
+
+    @Override
+    public BigInteger apply(BigInteger a, BigInteger b) { return a.multiply(b); }
+}
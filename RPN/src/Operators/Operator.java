@@ -1,6 +1,21 @@
 package Operators;
 
+import java.math.BigInteger;
+
 public interface Operator {
     int apply(int a, int b);
     String getSymbol();
-}
\ No newline at end of file
+
+    // Apply the operator element-wise to the first length elements; result may be the same array as a or b.
+    // Built-in operators override this with a plain array loop that the JIT can vectorise.
+    default void applyAll(int[] a, int[] b, int[] result, int length) {
+        for (int i = 0; i < length; i++)
+            result[i] = apply(a[i], b[i]);
+    }
+
+    // Overflow-checked long variant: must throw ArithmeticException instead of wrapping
+    long applyExact(long a, long b);
+
+    // Arbitrary-precision variant, used once a long result has overflowed
+    BigInteger apply(BigInteger a, BigInteger b);
+}
@@ -1,66 +1,297 @@
 import Operators.*;
 
+import java.math.BigInteger;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
 
 public class RPNCalculator {
+    private static final int MIN_BATCH_CHUNK = 256;
+
     private final Map<String, Operator> operators;
+    private final Operator[] operatorTable;
+    // Tokenizer and operand stack reused between calls, one pair per thread so evaluate stays safe to share
+    private final ThreadLocal<Workspace> workspace;
+    private final RPNResultCache cache;
+    private EvaluationMetrics metrics;
+
+    public RPNCalculator() { this(null); }
+
+    // Constructor to initialize the operators map.
+    // A non-null cache answers repeated expressions without evaluating them and may be shared between calculators.
+    public RPNCalculator(RPNResultCache cache) {
+        this.cache = cache;
 
-    // Constructor to initialize the operators map
-    public RPNCalculator() {
         operators = new HashMap<>();
         operators.put("+", new AdditionOperator());
         operators.put("-", new SubtractionOperator());
         operators.put("*", new MultiplicationOperator());
+
+        operatorTable = operators.values().toArray(new Operator[0]);
+        workspace = ThreadLocal.withInitial(() -> new Workspace(new RPNTokenizer(operatorTable)));
+    }
+
+    // Evaluate the given expression in Reverse Polish Notation.
+    // Safe to call from several threads at once, each evaluates with its own tokenizer and stack.
+    public int evaluate(CharSequence expression) {
+        Workspace workspace = this.workspace.get();
+        EvaluationMetrics metrics = this.metrics;
+        if (metrics == null) return evaluateCached(expression, workspace);
+
+        workspace.cacheHit = false;
+        long start = System.nanoTime();
+        EvaluationException failure = null;
+        try {
+            return evaluateCached(expression, workspace);
+        } catch (EvaluationException e) {
+            failure = e;
+            throw e;
+        } finally {
+            long nanos = System.nanoTime() - start;
+            // Token count and peak depth come from a separate scan, so the evaluation loop itself is never instrumented.
+            // A cache hit reports no tokens and no depth.
+            if (workspace.cacheHit) metrics.record(expression, 0, 0, nanos, failure);
+            else {
+                ExpressionAnalysis analysis = analyze(expression);
+                metrics.record(expression, analysis.getTokenCount(), analysis.getMaxDepth(), nanos, failure);
+            }
+        }
     }
 
-    // Evaluate the given expression in Reverse Polish Notation
-    public int evaluate(String expression) {
-        if (expression == null || expression.trim().isEmpty())
-            throw new IllegalArgumentException("Expression cannot be empty");
+    // Attach metrics to every later evaluate call, or detach them with null; detached metrics cost a single null check
+    public void setMetrics(EvaluationMetrics metrics) { this.metrics = metrics; }
 
-        Stack<Integer> stack = new Stack<>();
-        // Split the expression by whitespaces
-        String[] tokens = expression.trim().split("\\s+");
+    private int evaluateCached(CharSequence expression, Workspace workspace) {
+        if (cache == null || expression == null) return evaluate(expression, workspace.tokenizer, workspace.stack);
 
-        // Process each token
-        for (String token : tokens) {
-            // If the token is a number, push it to the stack
-            if (isNumeric(token)) stack.push(Integer.parseInt(token));
-            // If the token is an operator, pop two operands from the stack, perform the operation, and push the result back
-            else if (operators.containsKey(token)) {
-                if (stack.isEmpty())
-                    throw new IllegalArgumentException("Invalid expression: insufficient operands");
-                int b = stack.pop();
-                if (stack.isEmpty())
-                    throw new IllegalArgumentException("Invalid expression: insufficient operands");
-                int a = stack.pop();
-
-                // Apply the operator and push the result back to the stack
-                stack.push(operators.get(token).apply(a, b));
-            } else throw new IllegalArgumentException("Invalid token: " + token);
+        String key = RPNResultCache.normalize(expression);
+        Integer cached = cache.get(key);
+        if (cached != null) {
+            workspace.cacheHit = true;
+            return cached;
         }
 
+        int result = evaluate(key, workspace.tokenizer, workspace.stack);
+        cache.put(key, result);
+        return result;
+    }
+
+    // Evaluate without int overflow: long arithmetic with overflow checks, switching to BigInteger only if needed
+    public BigInteger evaluateWide(CharSequence expression) {
+        return compile(expression).evaluateWide();
+    }
+
+    // Evaluate every expression independently across the common fork-join pool.
+    // A failing expression is recorded at its index and does not abort the rest of the batch.
+    public BatchResult evaluateAll(List<String> expressions) {
+        return evaluateAll(expressions.toArray(new String[0]));
+    }
+
+    public BatchResult evaluateAll(String[] expressions) {
+        int[] values = new int[expressions.length];
+        IllegalArgumentException[] errors = new IllegalArgumentException[expressions.length];
+        if (expressions.length == 0) return new BatchResult(values, errors);
+
+        // Aim for several chunks per worker so uneven expression lengths still balance out
+        int parallelism = ForkJoinPool.getCommonPoolParallelism();
+        int threshold = Math.max(MIN_BATCH_CHUNK, expressions.length / (parallelism * 8));
+        ForkJoinPool.commonPool().invoke(new BatchTask(expressions, values, errors, 0, expressions.length, threshold));
+        return new BatchResult(values, errors);
+    }
+
+    private int evaluate(CharSequence expression, RPNTokenizer tokenizer, IntStack stack) {
+        if (expression == null)
+            throw new EvaluationException(EvaluationException.ErrorKind.EMPTY_EXPRESSION, "Expression cannot be empty");
+
+        stack.clear();
+        tokenizer.reset(expression);
+        RPNTokenizer.TokenType type = tokenizer.next();
+        if (type == RPNTokenizer.TokenType.END)
+            throw new EvaluationException(EvaluationException.ErrorKind.EMPTY_EXPRESSION, "Expression cannot be empty");
+
+        // Process each token
+        for (; type != RPNTokenizer.TokenType.END; type = tokenizer.next())
+            step(type, tokenizer, stack);
+
+        return result(stack);
+    }
+
+    // Apply one classified token to the operand stack
+    static void step(RPNTokenizer.TokenType type, RPNTokenizer tokenizer, IntStack stack) {
+        // If the token is a number, push it to the stack
+        if (type == RPNTokenizer.TokenType.NUMBER) stack.push(tokenizer.getNumber());
+        // If the token is an operator, pop two operands from the stack, perform the operation, and push the result back
+        else if (type == RPNTokenizer.TokenType.OPERATOR) {
+            if (stack.size() < 2)
+                throw new EvaluationException(EvaluationException.ErrorKind.INSUFFICIENT_OPERANDS, "Invalid expression: insufficient operands");
+            int b = stack.pop();
+            int a = stack.pop();
+
+            // Apply the operator and push the result back to the stack
+            stack.push(tokenizer.getOperator().apply(a, b));
+        } else if (type == RPNTokenizer.TokenType.VARIABLE)
+            throw new EvaluationException(EvaluationException.ErrorKind.UNBOUND_VARIABLE, "Unbound variable: " + tokenizer.getTokenText());
+        else throw new EvaluationException(EvaluationException.ErrorKind.INVALID_TOKEN, "Invalid token: " + tokenizer.getTokenText());
+    }
+
+    // Take the result off a stack that has seen every token of the expression
+    static int result(IntStack stack) {
         // The result should be the only element in the stack
         if (stack.isEmpty())
-            throw new IllegalArgumentException("Invalid expression: no result");
+            throw new EvaluationException(EvaluationException.ErrorKind.NO_RESULT, "Invalid expression: no result");
 
         int result = stack.pop();
 
         // The stack should be empty after evaluating the expression
         if (!stack.isEmpty())
-            throw new IllegalArgumentException("Invalid expression: too many operands");
+            throw new EvaluationException(EvaluationException.ErrorKind.TOO_MANY_OPERANDS, "Invalid expression: too many operands");
 
         return result;
     }
 
-    private boolean isNumeric(String str) {
-        try {
-            Integer.parseInt(str);
-            return true;
-        } catch (NumberFormatException e) {
-            return false;
+    // Per-thread scratch state of evaluate
+    private static final class Workspace {
+        final RPNTokenizer tokenizer;
+        final IntStack stack = new IntStack();
+        boolean cacheHit;
+
+        Workspace(RPNTokenizer tokenizer) { this.tokenizer = tokenizer; }
+    }
+
+    // Splits a batch range in halves until it is small enough, then evaluates it with its own tokenizer and stack
+    private class BatchTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final String[] expressions;
+        private final int[] values;
+        private final IllegalArgumentException[] errors;
+        private final int from;
+        private final int to;
+        private final int threshold;
+
+        BatchTask(String[] expressions, int[] values, IllegalArgumentException[] errors, int from, int to, int threshold) {
+            this.expressions = expressions;
+            this.values = values;
+            this.errors = errors;
+            this.from = from;
+            this.to = to;
+            this.threshold = threshold;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from > threshold) {
+                int middle = (from + to) >>> 1;
+                invokeAll(new BatchTask(expressions, values, errors, from, middle, threshold),
+                        new BatchTask(expressions, values, errors, middle, to, threshold));
+                return;
+            }
+
+            RPNTokenizer workerTokenizer = new RPNTokenizer(operatorTable);
+            IntStack workerStack = new IntStack();
+            for (int i = from; i < to; i++) {
+                try {
+                    values[i] = evaluate(expressions[i], workerTokenizer, workerStack);
+                } catch (IllegalArgumentException e) {
+                    errors[i] = e;
+                }
+            }
         }
     }
 
+    // Evaluator that is fed an expression chunk by chunk, see IncrementalEvaluator
+    public IncrementalEvaluator newIncrementalEvaluator() { return new IncrementalEvaluator(operatorTable); }
+
+    // Check the expression in one pass without evaluating it, reporting problems instead of throwing.
+    // Variables are accepted here; binding them is up to the caller.
+    public ExpressionAnalysis analyze(CharSequence expression) {
+        if (expression == null)
+            return ExpressionAnalysis.invalid(EvaluationException.ErrorKind.EMPTY_EXPRESSION, "Expression cannot be empty", 0, 0, 0);
+        return analyze(expression, new RPNTokenizer(operatorTable));
+    }
+
+    private ExpressionAnalysis analyze(CharSequence expression, RPNTokenizer scanner) {
+        scanner.reset(expression);
+        int tokens = 0;
+        int depth = 0;
+        int maxDepth = 0;
+
+        for (RPNTokenizer.TokenType type = scanner.next(); type != RPNTokenizer.TokenType.END; type = scanner.next()) {
+            tokens++;
+            // Numbers and variables push one value, operators pop two and push one
+            if (type == RPNTokenizer.TokenType.NUMBER || type == RPNTokenizer.TokenType.VARIABLE)
+                maxDepth = Math.max(maxDepth, ++depth);
+            else if (type == RPNTokenizer.TokenType.OPERATOR) {
+                if (depth < 2)
+                    return ExpressionAnalysis.invalid(EvaluationException.ErrorKind.INSUFFICIENT_OPERANDS,
+                            "Invalid expression: insufficient operands", tokens, maxDepth, depth);
+                depth--;
+            } else
+                return ExpressionAnalysis.invalid(EvaluationException.ErrorKind.INVALID_TOKEN,
+                        "Invalid token: " + scanner.getTokenText(), tokens, maxDepth, depth);
+        }
+
+        if (tokens == 0)
+            return ExpressionAnalysis.invalid(EvaluationException.ErrorKind.EMPTY_EXPRESSION, "Expression cannot be empty", 0, 0, 0);
+        // The result should be the only element left on the stack
+        if (depth > 1)
+            return ExpressionAnalysis.invalid(EvaluationException.ErrorKind.TOO_MANY_OPERANDS,
+                    "Invalid expression: too many operands", tokens, maxDepth, depth);
+        return ExpressionAnalysis.valid(tokens, maxDepth);
+    }
+
+    // Translate the given expression into a reusable program, validating it once up front.
+    // Variables are numbered in order of first appearance, see CompiledExpression.getVariables.
+    public CompiledExpression compile(CharSequence expression) {
+        if (expression == null)
+            throw new EvaluationException(EvaluationException.ErrorKind.EMPTY_EXPRESSION, "Expression cannot be empty");
+
+        // Validate first, so the program arrays can be sized exactly and the second pass needs no checks
+        RPNTokenizer scanner = new RPNTokenizer(operatorTable);
+        ExpressionAnalysis analysis = analyze(expression, scanner);
+        if (!analysis.isValid())
+            throw new EvaluationException(analysis.getErrorKind(), analysis.getMessage());
+
+        int count = analysis.getTokenCount();
+        byte[] opcodes = new byte[count];
+        int[] operands = new int[count];
+        List<Operator> used = new ArrayList<>();
+        List<String> variables = new ArrayList<>();
+
+        scanner.reset(expression);
+        for (int pc = 0; pc < count; pc++) {
+            RPNTokenizer.TokenType type = scanner.next();
+            // A number becomes a push of its value
+            if (type == RPNTokenizer.TokenType.NUMBER) {
+                opcodes[pc] = CompiledExpression.PUSH;
+                operands[pc] = scanner.getNumber();
+            }
+            // An operator becomes an application of the matching entry in the operator table
+            else if (type == RPNTokenizer.TokenType.OPERATOR) {
+                opcodes[pc] = CompiledExpression.APPLY;
+                operands[pc] = indexOf(used, scanner.getOperator());
+            }
+            // A variable becomes a load of the matching input value
+            else {
+                opcodes[pc] = CompiledExpression.LOAD;
+                operands[pc] = indexOf(variables, scanner.getTokenText());
+            }
+        }
+
+        return new CompiledExpression(opcodes, operands, used.toArray(new Operator[0]),
+                variables.toArray(new String[0]), analysis.getMaxDepth(), 0);
+    }
+
+    // Position of the value in the list, appending it first if it is not there yet
+    private static <T> int indexOf(List<T> list, T value) {
+        int index = list.indexOf(value);
+        if (index < 0) {
+            index = list.size();
+            list.add(value);
+        }
+        return index;
+    }
 }
\ No newline at end of file
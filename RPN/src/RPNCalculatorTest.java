@@ -1,5 +1,9 @@
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import java.lang.management.ManagementFactory;
+import java.math.BigInteger;
+import java.util.List;
+
 import static org.junit.jupiter.api.Assertions.*;
 
 public class RPNCalculatorTest {
@@ -50,4 +54,202 @@ public class RPNCalculatorTest {
     void emptyExpression() {
         assertThrows(IllegalArgumentException.class, () -> calculator.evaluate(""));
     }
-}
\ No newline at end of file
+
+    @Test
+    void calculatorCanBeSharedBetweenThreads() throws InterruptedException {
+        Thread[] threads = new Thread[4];
+        int[] mismatches = new int[threads.length];
+        for (int t = 0; t < threads.length; t++) {
+            int id = t;
+            threads[t] = new Thread(() -> {
+                for (int i = 0; i < 20_000; i++) {
+                    try {
+                        if (calculator.evaluate(id + " " + i + " + 3 *") != (id + i) * 3) mismatches[id]++;
+                    } catch (IllegalArgumentException e) {
+                        mismatches[id]++;
+                    }
+                }
+            });
+            threads[t].start();
+        }
+        for (Thread thread : threads) thread.join();
+
+        assertArrayEquals(new int[threads.length], mismatches);
+    }
+
+    @Test
+    void compiledExpressionIsReusable() {
+        CompiledExpression compiled = calculator.compile("7 8 + 9 *");
+        assertEquals(135, compiled.evaluate());
+        assertEquals(135, compiled.evaluate());
+        assertEquals(2, compiled.getMaxDepth());
+    }
+
+    @Test
+    void compiledExpressionReusesCallerStack() {
+        IntStack stack = new IntStack();
+        assertEquals(7, calculator.compile("1 2 3 * +").evaluate(stack));
+        assertEquals(30, calculator.compile("5 6 *").evaluate(stack));
+        assertTrue(stack.isEmpty());
+    }
+
+    @Test
+    void compiledExpressionEvaluationDoesNotAllocate() {
+        CompiledExpression constant = calculator.compile("7 8 + 9 * 3 -");
+        CompiledExpression withVariables = calculator.compile("x y + x *");
+        int[] values = {3, 4};
+        Runnable evaluations = () -> {
+            for (int i = 0; i < 10_000; i++) {
+                constant.evaluate();
+                withVariables.evaluate(values);
+            }
+        };
+        evaluations.run();   // first use creates the thread's scratch stack
+
+        assertTrue(allocatedBytes(evaluations) < 1024);
+        assertEquals(21, withVariables.evaluate(values));
+    }
+
+    @Test
+    void compileRejectsInvalidExpressions() {
+        assertThrows(IllegalArgumentException.class, () -> calculator.compile("4 5"));
+        assertThrows(IllegalArgumentException.class, () -> calculator.compile("6 +"));
+        assertThrows(IllegalArgumentException.class, () -> calculator.compile("3 4 $"));
+        assertThrows(IllegalArgumentException.class, () -> calculator.compile(" "));
+    }
+
+    @Test
+    void signedNumbersAndWhitespace() {
+        assertEquals(-8, calculator.evaluate("  -5\t+3 -\n"));
+        assertEquals(Integer.MIN_VALUE, calculator.evaluate("-2147483648"));
+        assertThrows(IllegalArgumentException.class, () -> calculator.evaluate("2147483648"));
+        assertThrows(IllegalArgumentException.class, () -> calculator.evaluate("1 2 ++"));
+    }
+
+    @Test
+    void evaluateAllKeepsGoingPastInvalidExpressions() {
+        String[] expressions = new String[1000];
+        for (int i = 0; i < expressions.length; i++)
+            expressions[i] = i % 100 == 0 ? "1 +" : i + " 2 *";
+
+        BatchResult result = calculator.evaluateAll(expressions);
+        assertEquals(1000, result.size());
+        assertEquals(10, result.getFailureCount());
+        assertFalse(result.isSuccess(0));
+        assertNotNull(result.getError(500));
+        assertEquals(2 * 999, result.getValue(999));
+        assertThrows(IllegalArgumentException.class, () -> result.getValue(100));
+    }
+
+    @Test
+    void evaluateAllAcceptsLists() {
+        BatchResult result = calculator.evaluateAll(List.of("1 2 +", "3 4 $"));
+        assertEquals(3, result.getValue(0));
+        assertFalse(result.isSuccess(1));
+    }
+
+    @Test
+    void variablesAreBoundAtEvaluation() {
+        CompiledExpression compiled = calculator.compile("x y + 3 * x -");
+        assertArrayEquals(new String[] {"x", "y"}, compiled.getVariables());
+        assertEquals(13, compiled.evaluate(new int[] {2, 3}));
+        assertThrows(IllegalArgumentException.class, () -> compiled.evaluate());
+        assertThrows(IllegalArgumentException.class, () -> calculator.evaluate("x 1 +"));
+    }
+
+    @Test
+    void evaluateColumnsMatchesRowByRowEvaluation() {
+        CompiledExpression compiled = calculator.compile("x y + 3 * x - 7 *");
+        int rows = 2500;
+        int[] x = new int[rows];
+        int[] y = new int[rows];
+        for (int i = 0; i < rows; i++) {
+            x[i] = i;
+            y[i] = rows - 2 * i;
+        }
+
+        int[] result = new int[rows];
+        compiled.evaluateColumns(new int[][] {x, y}, result);
+        for (int i = 0; i < rows; i++)
+            assertEquals(compiled.evaluate(new int[] {x[i], y[i]}), result[i]);
+    }
+
+    @Test
+    void bytecodeMatchesInterpretedEvaluation() {
+        CompiledExpression compiled = calculator.compile("x y + 100000 * x - -7 * 300 +");
+        IntFormula formula = compiled.toBytecode();
+        int[] values = {12, -5};
+        assertEquals(compiled.evaluate(values), formula.evaluate(values));
+    }
+
+    @Test
+    void adaptiveExpressionIsPromotedAfterThreshold() {
+        AdaptiveExpression expression = new AdaptiveExpression(calculator.compile("7 8 + 9 *"), 3);
+        for (int i = 0; i < 2; i++)
+            assertEquals(135, expression.evaluate());
+        assertFalse(expression.isPromoted());
+
+        assertEquals(135, expression.evaluate());
+        assertTrue(expression.isPromoted());
+    }
+
+    @Test
+    void promotedExpressionKeepsVariableCountCheck() {
+        AdaptiveExpression expression = new AdaptiveExpression(calculator.compile("x y +"), 1);
+        assertEquals(3, expression.evaluate(new int[] {1, 2}));
+        assertTrue(expression.isPromoted());
+
+        assertThrows(IllegalArgumentException.class, () -> expression.evaluate(new int[] {1}));
+        assertThrows(IllegalArgumentException.class, () -> expression.evaluate(new int[] {1, 2, 3}));
+        assertThrows(IllegalArgumentException.class, () -> calculator.compile("x y +").toBytecode().evaluate(new int[] {1, 2, 3}));
+    }
+
+    @Test
+    void analyzeReportsDepthWithoutEvaluating() {
+        ExpressionAnalysis analysis = calculator.analyze("1 2 3 * + x -");
+        assertTrue(analysis.isValid());
+        assertEquals(7, analysis.getTokenCount());
+        assertEquals(3, analysis.getMaxDepth());
+        assertEquals(1, analysis.getBalance());
+
+        ExpressionAnalysis tooMany = calculator.analyze("4 5");
+        assertFalse(tooMany.isValid());
+        assertEquals(EvaluationException.ErrorKind.TOO_MANY_OPERANDS, tooMany.getErrorKind());
+        assertEquals(2, tooMany.getBalance());
+
+        assertEquals(EvaluationException.ErrorKind.INSUFFICIENT_OPERANDS, calculator.analyze("6 +").getErrorKind());
+        assertEquals(EvaluationException.ErrorKind.INVALID_TOKEN, calculator.analyze("3 4 $").getErrorKind());
+        assertEquals(EvaluationException.ErrorKind.EMPTY_EXPRESSION, calculator.analyze(" ").getErrorKind());
+    }
+
+    @Test
+    void wideEvaluationDoesNotOverflow() {
+        assertEquals(BigInteger.valueOf(135), calculator.evaluateWide("7 8 + 9 *"));
+        assertEquals(BigInteger.valueOf(2147483647L * 2147483647L), calculator.evaluateWide("2147483647 2147483647 *"));
+
+        // Overflows long part way through, the rest runs on BigInteger
+        BigInteger big = BigInteger.valueOf(2147483647);
+        BigInteger expected = big.pow(4).subtract(BigInteger.ONE).multiply(BigInteger.TWO);
+        assertEquals(expected, calculator.evaluateWide("2147483647 2147483647 * 2147483647 * 2147483647 * 1 - 2 *"));
+    }
+
+    @Test
+    void exactEvaluationUsesCallerScratch() {
+        CompiledExpression compiled = calculator.compile("x 2147483647 * 2147483647 *");
+        long[] scratch = new long[compiled.getScratchSize()];
+        assertEquals(2147483647L * 2147483647L * 2, compiled.evaluateExact(scratch, new int[] {2}));
+        assertEquals(-2147483647L * 2147483647L, compiled.evaluateExact(scratch, new int[] {-1}));
+
+        // Where evaluateWide would switch to BigInteger, the primitive path refuses
+        assertThrows(ArithmeticException.class, () -> compiled.evaluateExact(scratch, new int[] {2147483647}));
+        assertThrows(IllegalArgumentException.class, () -> compiled.evaluateExact(new long[0], new int[] {1}));
+    }
+
+    // Bytes allocated by the current thread while running the action
+    static long allocatedBytes(Runnable action) {
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long before = threads.getCurrentThreadAllocatedBytes();
+        action.run();
+        return threads.getCurrentThreadAllocatedBytes() - before;
+    }
+}
@@ -0,0 +1,83 @@
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+// Loopback load generator for RPNServer.
+// Every connection runs on its own thread and sends requests in pipelined batches, then reads the batch's replies;
+// the latency of a request is measured from the write of its batch to the arrival of its reply.
+// Usage: RPNLoadClient [host] [port] [connections] [requestsPerConnection] [pipelineDepth]
+public class RPNLoadClient {
+    private static final byte[] REQUEST = "7 8 + 9 * 3 -\n".getBytes(StandardCharsets.US_ASCII);
+
+    public static void main(String[] args) throws Exception {
+        String host = args.length > 0 ? args[0] : "localhost";
+        int port = args.length > 1 ? Integer.parseInt(args[1]) : 7070;
+        int connections = args.length > 2 ? Integer.parseInt(args[2]) : 8;
+        int requests = args.length > 3 ? Integer.parseInt(args[3]) : 100_000;
+        int depth = args.length > 4 ? Integer.parseInt(args[4]) : 64;
+
+        long[][] latencies = new long[connections][];
+        List<Thread> threads = new ArrayList<>();
+        long start = System.nanoTime();
+        for (int c = 0; c < connections; c++) {
+            int index = c;
+            Thread thread = new Thread(() -> latencies[index] = runConnection(host, port, requests, depth));
+            threads.add(thread);
+            thread.start();
+        }
+        for (Thread thread : threads)
+            thread.join();
+        long elapsed = System.nanoTime() - start;
+
+        long[] all = Arrays.stream(latencies).flatMapToLong(Arrays::stream).sorted().toArray();
+        System.out.printf("%d requests over %d connections, pipeline depth %d%n", all.length, connections, depth);
+        System.out.printf("throughput: %.0f requests/s%n", all.length / (elapsed / 1e9));
+        System.out.printf("latency p50: %.1f us, p99: %.1f us, max: %.1f us%n",
+                percentile(all, 0.50) / 1e3, percentile(all, 0.99) / 1e3, all[all.length - 1] / 1e3);
+    }
+
+    private static long[] runConnection(String host, int port, int requests, int depth) {
+        long[] latencies = new long[requests];
+        ByteBuffer batch = ByteBuffer.allocate(REQUEST.length * depth);
+        ByteBuffer replies = ByteBuffer.allocate(64 * 1024);
+
+        try (SocketChannel channel = SocketChannel.open(new InetSocketAddress(host, port))) {
+            int sent = 0;
+            while (sent < requests) {
+                int count = Math.min(depth, requests - sent);
+                batch.clear();
+                for (int i = 0; i < count; i++)
+                    batch.put(REQUEST);
+                batch.flip();
+
+                long batchStart = System.nanoTime();
+                while (batch.hasRemaining()) channel.write(batch);
+
+                // Read until every reply of the batch has arrived, timing each one as its newline shows up
+                int received = 0;
+                while (received < count) {
+                    if (channel.read(replies) < 0) throw new IOException("Server closed the connection");
+                    long now = System.nanoTime();
+                    replies.flip();
+                    while (replies.hasRemaining())
+                        if (replies.get() == '\n') latencies[sent + received++] = now - batchStart;
+                    replies.clear();
+                }
+                sent += count;
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException("Load connection failed", e);
+        }
+        return latencies;
+    }
+
+    private static long percentile(long[] sorted, double fraction) {
+        int index = (int) Math.ceil(fraction * sorted.length) - 1;
+        return sorted[Math.max(0, Math.min(index, sorted.length - 1))];
+    }
+}
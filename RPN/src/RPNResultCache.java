@@ -0,0 +1,105 @@
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+// Bounded cache of expression results, keyed on the expression with whitespace normalised.
+// Safe to share between threads and between calculators; only successful evaluations are stored.
+// Eviction is approximately least recently used: reads take no lock and only stamp the entry they hit, and an
+// insert that overflows the cache evicts the stalest of a small sample of entries.
+public class RPNResultCache {
+    private static final int EVICTION_SAMPLE = 8;
+
+    private final int maxEntries;
+    private final ConcurrentHashMap<String, Entry> entries = new ConcurrentHashMap<>();
+    // Advanced by every insert, so a read stamps its entry as newer than anything inserted before it
+    private final AtomicLong clock = new AtomicLong();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    public RPNResultCache(int maxEntries) {
+        if (maxEntries <= 0)
+            throw new IllegalArgumentException("Cache size must be positive");
+        this.maxEntries = maxEntries;
+    }
+
+    // Cached result for a normalised expression, or null on a miss
+    public Integer get(String key) {
+        Entry entry = entries.get(key);
+        if (entry == null) {
+            misses.increment();
+            return null;
+        }
+
+        hits.increment();
+        // Skip the write when the stamp is already current, so hot entries are not written on every read
+        long now = clock.get();
+        if (entry.lastUsed != now) entry.lastUsed = now;
+        return entry.value;
+    }
+
+    public void put(String key, int value) {
+        entries.put(key, new Entry(value, clock.getAndIncrement()));
+        while (entries.size() > maxEntries) evictOne();
+    }
+
+    public int size() { return entries.size(); }
+
+    public void clear() { entries.clear(); }
+
+    // Remove the least recently used entry of a sample taken from the front of the table
+    private void evictOne() {
+        Map.Entry<String, Entry> victim = null;
+        Iterator<Map.Entry<String, Entry>> sample = entries.entrySet().iterator();
+        for (int i = 0; i < EVICTION_SAMPLE && sample.hasNext(); i++) {
+            Map.Entry<String, Entry> candidate = sample.next();
+            if (victim == null || candidate.getValue().lastUsed < victim.getValue().lastUsed) victim = candidate;
+        }
+        // Another thread may have evicted or replaced the victim first, then this round removes nothing
+        if (victim != null && entries.remove(victim.getKey(), victim.getValue())) evictions.increment();
+    }
+
+    private static final class Entry {
+        final int value;
+        volatile long lastUsed;
+
+        Entry(int value, long lastUsed) {
+            this.value = value;
+            this.lastUsed = lastUsed;
+        }
+    }
+
+    public long getHits() { return hits.sum(); }
+
+    public long getMisses() { return misses.sum(); }
+
+    public long getEvictions() { return evictions.sum(); }
+
+    // Trim the expression and collapse whitespace runs into single spaces.
+    // Strings that are already normalised are returned as is, so repeated well-formed inputs do not allocate.
+    public static String normalize(CharSequence expression) {
+        int length = expression.length();
+        boolean normalized = true;
+        for (int i = 0; i < length && normalized; i++) {
+            char c = expression.charAt(i);
+            if (RPNTokenizer.isWhitespace(c))
+                normalized = c == ' ' && i > 0 && i < length - 1 && expression.charAt(i - 1) != ' ';
+        }
+        if (normalized && expression instanceof String) return (String) expression;
+
+        StringBuilder builder = new StringBuilder(length);
+        boolean pendingSpace = false;
+        for (int i = 0; i < length; i++) {
+            char c = expression.charAt(i);
+            if (RPNTokenizer.isWhitespace(c)) pendingSpace = builder.length() > 0;
+            else {
+                if (pendingSpace) builder.append(' ');
+                builder.append(c);
+                pendingSpace = false;
+            }
+        }
+        return builder.toString();
+    }
+}
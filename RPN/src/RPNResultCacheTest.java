@@ -0,0 +1,71 @@
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class RPNResultCacheTest {
+
+    @Test
+    void repeatedExpressionsAreServedFromCache() {
+        RPNResultCache cache = new RPNResultCache(10);
+        RPNCalculator calculator = new RPNCalculator(cache);
+
+        assertEquals(3, calculator.evaluate("1 2 +"));
+        assertEquals(3, calculator.evaluate("  1\t2   + "));
+
+        assertEquals(1, cache.getMisses());
+        assertEquals(1, cache.getHits());
+        assertEquals(1, cache.size());
+    }
+
+    @Test
+    void leastRecentlyUsedEntryIsEvicted() {
+        RPNResultCache cache = new RPNResultCache(2);
+        cache.put("1", 1);
+        cache.put("2", 2);
+        cache.get("1");
+        cache.put("3", 3);
+
+        assertEquals(1, cache.getEvictions());
+        assertNull(cache.get("2"));
+        assertEquals(1, (int) cache.get("1"));
+        assertEquals(3, (int) cache.get("3"));
+    }
+
+    @Test
+    void concurrentUseStaysWithinBound() throws InterruptedException {
+        RPNResultCache cache = new RPNResultCache(64);
+        Thread[] threads = new Thread[4];
+        for (int t = 0; t < threads.length; t++) {
+            int id = t;
+            threads[t] = new Thread(() -> {
+                for (int i = 0; i < 10_000; i++) {
+                    String key = Integer.toString((i * 31 + id) % 200);
+                    Integer cached = cache.get(key);
+                    if (cached == null) cache.put(key, i);
+                }
+            });
+            threads[t].start();
+        }
+        for (Thread thread : threads) thread.join();
+
+        assertTrue(cache.size() <= 64);
+        assertEquals(4 * 10_000, cache.getHits() + cache.getMisses());
+        assertTrue(cache.getEvictions() > 0);
+    }
+
+    @Test
+    void failuresAreNotCached() {
+        RPNResultCache cache = new RPNResultCache(10);
+        RPNCalculator calculator = new RPNCalculator(cache);
+
+        assertThrows(IllegalArgumentException.class, () -> calculator.evaluate("3 4 $"));
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    void normalizeCollapsesWhitespace() {
+        String normalized = "1 2 +";
+        assertSame(normalized, RPNResultCache.normalize(normalized));
+        assertEquals("1 2 +", RPNResultCache.normalize(" 1  2\n+ "));
+    }
+}
@@ -0,0 +1,214 @@
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+
+// Single-threaded, non-blocking TCP front end for RPNCalculator.
+// Each request is one expression terminated by a newline and each reply is one line, either the result
+// or "ERR <message>", in request order. Clients may pipeline any number of requests; all replies produced
+// by one read are written back together, and reading from a client pauses while its replies are not drained.
+// Empty lines are ignored and get no reply. A request longer than MAX_REQUEST_LENGTH bytes gets
+// "ERR Request too long", after which the server ends its side of the connection and discards the client's
+// remaining input without buffering it, so one endless line cannot exhaust the heap.
+public class RPNServer implements Runnable, AutoCloseable {
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final int MAX_PENDING_OUTPUT = 1024 * 1024;
+    static final int MAX_REQUEST_LENGTH = 1024 * 1024;
+    private static final byte[] REQUEST_TOO_LONG = "ERR Request too long\n".getBytes(StandardCharsets.US_ASCII);
+
+    private final Selector selector;
+    private final ServerSocketChannel serverChannel;
+    private final RPNCalculator calculator = new RPNCalculator();
+    private volatile boolean running = true;
+
+    public RPNServer(int port) throws IOException {
+        selector = Selector.open();
+        serverChannel = ServerSocketChannel.open();
+        serverChannel.bind(new InetSocketAddress(port));
+        serverChannel.configureBlocking(false);
+        serverChannel.register(selector, SelectionKey.OP_ACCEPT);
+    }
+
+    // Actual port, useful when the server was created with port 0
+    public int getPort() { return serverChannel.socket().getLocalPort(); }
+
+    @Override
+    public void run() {
+        try {
+            while (running) {
+                selector.select();
+                Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+                while (keys.hasNext()) {
+                    SelectionKey key = keys.next();
+                    keys.remove();
+                    try {
+                        handle(key);
+                    } catch (IOException e) {
+                        // A broken client connection must not take the server down
+                        key.cancel();
+                        key.channel().close();
+                    }
+                }
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException("Server failed", e);
+        } finally {
+            closeQuietly();
+        }
+    }
+
+    @Override
+    public void close() {
+        running = false;
+        selector.wakeup();
+    }
+
+    private void handle(SelectionKey key) throws IOException {
+        if (!key.isValid()) return;
+        if (key.isAcceptable()) {
+            SocketChannel client = serverChannel.accept();
+            if (client == null) return;
+            client.configureBlocking(false);
+            client.register(selector, SelectionKey.OP_READ, new Connection(client));
+            return;
+        }
+
+        Connection connection = (Connection) key.attachment();
+        if (key.isReadable()) connection.read(key);
+        if (key.isValid() && key.isWritable()) connection.flush(key);
+    }
+
+    private void closeQuietly() {
+        for (SelectionKey key : selector.keys()) {
+            try {
+                key.channel().close();
+            } catch (IOException ignored) {
+                // Shutting down anyway
+            }
+        }
+        try {
+            selector.close();
+        } catch (IOException ignored) {
+            // Shutting down anyway
+        }
+    }
+
+    // Per-client buffers; replies are encoded straight into the output buffer
+    private class Connection implements ResultSink {
+        private final SocketChannel channel;
+        private final RPNStreamEvaluator evaluator = new RPNStreamEvaluator(calculator);
+        private ByteBuffer in = ByteBuffer.allocate(BUFFER_SIZE);
+        private ByteBuffer out = ByteBuffer.allocate(BUFFER_SIZE);
+        private boolean closing;
+        private boolean rejected;
+        private boolean outputShut;
+
+        Connection(SocketChannel channel) { this.channel = channel; }
+
+        void read(SelectionKey key) throws IOException {
+            boolean eof = channel.read(in) < 0;
+            if (rejected) {
+                in.clear();
+            } else {
+                parse(eof);
+            }
+
+            if (eof) {
+                closing = true;
+                key.interestOps(key.interestOps() & ~SelectionKey.OP_READ);
+            }
+            flush(key);
+        }
+
+        private void parse(boolean eof) {
+            int consumed = evaluator.processLines(in, in.position(), eof, this);
+            if (consumed == 0 && !in.hasRemaining()) {
+                if (in.capacity() >= MAX_REQUEST_LENGTH) {
+                    // The line cannot be a valid request; answer once and ignore the client from now on
+                    ensureCapacity(REQUEST_TOO_LONG.length);
+                    out.put(REQUEST_TOO_LONG);
+                    in.clear();
+                    rejected = true;
+                } else {
+                    // A single request fills the whole buffer, grow it to fit
+                    ByteBuffer larger = ByteBuffer.allocate(Math.min(in.capacity() * 2, MAX_REQUEST_LENGTH));
+                    in.flip();
+                    in = larger.put(in);
+                }
+            } else {
+                in.flip().position(consumed);
+                in.compact();
+            }
+        }
+
+        void flush(SelectionKey key) throws IOException {
+            out.flip();
+            channel.write(out);
+            out.compact();
+
+            boolean pending = out.position() > 0;
+            if (!pending && closing) {
+                key.cancel();
+                channel.close();
+                return;
+            }
+            if (!pending && rejected && !outputShut) {
+                // Half-close rather than close, so unread input does not reset the connection before the error arrives
+                channel.shutdownOutput();
+                outputShut = true;
+            }
+
+            int ops = pending ? SelectionKey.OP_WRITE : 0;
+            // Stop reading new requests from a client that is not consuming its replies
+            if (!closing && out.position() < MAX_PENDING_OUTPUT) ops |= SelectionKey.OP_READ;
+            key.interestOps(ops);
+        }
+
+        @Override
+        public void accept(long lineNumber, int value) {
+            ensureCapacity(12);
+            if (value < 0) out.put((byte) '-');
+            else value = -value;
+
+            // Digits of the negated value, so Integer.MIN_VALUE needs no special case
+            int start = out.position();
+            do {
+                out.put((byte) ('0' - value % 10));
+                value /= 10;
+            } while (value != 0);
+            for (int i = start, j = out.position() - 1; i < j; i++, j--) {
+                byte digit = out.get(i);
+                out.put(i, out.get(j));
+                out.put(j, digit);
+            }
+            out.put((byte) '\n');
+        }
+
+        @Override
+        public void reject(long lineNumber, IllegalArgumentException error) {
+            byte[] message = ("ERR " + error.getMessage() + "\n").getBytes(StandardCharsets.UTF_8);
+            ensureCapacity(message.length);
+            out.put(message);
+        }
+
+        private void ensureCapacity(int bytes) {
+            if (out.remaining() >= bytes) return;
+            ByteBuffer larger = ByteBuffer.allocate(Math.max(out.capacity() * 2, out.position() + bytes));
+            out.flip();
+            out = larger.put(out);
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : 7070;
+        try (RPNServer server = new RPNServer(port)) {
+            System.out.println("RPN server listening on port " + server.getPort());
+            server.run();
+        }
+    }
+}
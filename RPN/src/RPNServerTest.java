@@ -0,0 +1,69 @@
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class RPNServerTest {
+
+    private RPNServer server;
+    private Thread serverThread;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = new RPNServer(0);
+        serverThread = new Thread(server);
+        serverThread.start();
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        server.close();
+        serverThread.join();
+    }
+
+    @Test
+    void pipelinedRequestsAreAnsweredInOrder() throws IOException {
+        try (Socket socket = new Socket("localhost", server.getPort())) {
+            OutputStream out = socket.getOutputStream();
+            out.write("1 2 +\n3 4 $\n-2147483648\n7 8 + 9 *\n".getBytes(StandardCharsets.US_ASCII));
+            out.flush();
+
+            BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.US_ASCII));
+            assertEquals("3", in.readLine());
+            assertEquals("ERR Invalid token: $", in.readLine());
+            assertEquals("-2147483648", in.readLine());
+            assertEquals("135", in.readLine());
+        }
+    }
+
+    @Test
+    void oversizedRequestIsRejectedAndClosed() throws Exception {
+        try (Socket socket = new Socket("localhost", server.getPort())) {
+            Thread writer = new Thread(() -> {
+                byte[] digits = new byte[64 * 1024];
+                Arrays.fill(digits, (byte) '1');
+                try {
+                    OutputStream out = socket.getOutputStream();
+                    for (int sent = 0; sent <= RPNServer.MAX_REQUEST_LENGTH; sent += digits.length) out.write(digits);
+                    out.flush();
+                } catch (IOException expected) {
+                    // The server may close the connection before everything is sent
+                }
+            });
+            writer.start();
+
+            BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.US_ASCII));
+            assertEquals("ERR Request too long", in.readLine());
+            assertNull(in.readLine());
+            writer.join();
+        }
+    }
+}
@@ -0,0 +1,111 @@
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+// Evaluates newline-separated RPN expressions straight from bytes, one expression per line.
+// Lines are handed to the calculator as views over the input buffer, so memory stays bounded by
+// the buffer size (or the longest line) no matter how large the input is.
+// Empty lines are skipped but still counted, so line numbers match the input.
+public class RPNStreamEvaluator {
+    private static final int MAP_WINDOW = 64 * 1024 * 1024;
+    private static final int READ_BUFFER = 64 * 1024;
+
+    private final RPNCalculator calculator;
+    private final ByteCharSequence line = new ByteCharSequence();
+    private long lineNumber;
+
+    public RPNStreamEvaluator(RPNCalculator calculator) { this.calculator = calculator; }
+
+    // Memory-map the file window by window and evaluate every line; returns the number of lines read
+    public long evaluate(Path file, ResultSink sink) throws IOException {
+        lineNumber = 0;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            long position = 0;
+            int window = MAP_WINDOW;
+
+            while (position < size) {
+                int length = (int) Math.min(window, size - position);
+                boolean last = position + length == size;
+                MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, position, length);
+
+                int consumed = processLines(buffer, length, last, sink);
+                if (consumed == 0 && !last) {
+                    // A single line is longer than the window, map a larger one
+                    if (window == Integer.MAX_VALUE)
+                        throw new IOException("Line " + (lineNumber + 1) + " is too long");
+                    window = (int) Math.min(Integer.MAX_VALUE, window * 2L);
+                    continue;
+                }
+                position += consumed;
+            }
+        }
+        return lineNumber;
+    }
+
+    // Read the channel through a reusable buffer and evaluate every line; returns the number of lines read
+    public long evaluate(ReadableByteChannel channel, ResultSink sink) throws IOException {
+        lineNumber = 0;
+        ByteBuffer buffer = ByteBuffer.allocate(READ_BUFFER);
+        boolean eof = false;
+
+        while (!eof) {
+            eof = channel.read(buffer) < 0;
+            if (!eof && buffer.hasRemaining()) continue;
+
+            int consumed = processLines(buffer, buffer.position(), eof, sink);
+            if (consumed == 0 && !buffer.hasRemaining()) {
+                // A single line fills the whole buffer, grow it to fit
+                ByteBuffer larger = ByteBuffer.allocate(buffer.capacity() * 2);
+                buffer.flip();
+                buffer = larger.put(buffer);
+                continue;
+            }
+
+            // Keep the unfinished line at the front of the buffer for the next read
+            buffer.flip().position(consumed);
+            buffer.compact();
+        }
+        return lineNumber;
+    }
+
+    public long evaluate(InputStream in, ResultSink sink) throws IOException {
+        return evaluate(Channels.newChannel(in), sink);
+    }
+
+    // Evaluate the complete lines in bytes [0, limit) and return how many bytes were consumed.
+    // When last is set, trailing bytes without a newline form the final line.
+    int processLines(ByteBuffer buffer, int limit, boolean last, ResultSink sink) {
+        int lineStart = 0;
+        for (int i = 0; i < limit; i++) {
+            if (buffer.get(i) == '\n') {
+                processLine(buffer, lineStart, i, sink);
+                lineStart = i + 1;
+            }
+        }
+
+        if (last && lineStart < limit) {
+            processLine(buffer, lineStart, limit, sink);
+            lineStart = limit;
+        }
+        return lineStart;
+    }
+
+    private void processLine(ByteBuffer buffer, int start, int end, ResultSink sink) {
+        lineNumber++;
+        if (end > start && buffer.get(end - 1) == '\r') end--;
+        if (end == start) return;
+
+        try {
+            sink.accept(lineNumber, calculator.evaluate(line.wrap(buffer, start, end)));
+        } catch (IllegalArgumentException e) {
+            sink.reject(lineNumber, e);
+        }
+    }
+}
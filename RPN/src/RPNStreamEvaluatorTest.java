@@ -0,0 +1,63 @@
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class RPNStreamEvaluatorTest {
+
+    private RPNStreamEvaluator evaluator;
+    private List<String> results;
+    private ResultSink sink;
+
+    @BeforeEach
+    void setUp() {
+        evaluator = new RPNStreamEvaluator(new RPNCalculator());
+        results = new ArrayList<>();
+        sink = new ResultSink() {
+            @Override
+            public void accept(long lineNumber, int value) { results.add(lineNumber + "=" + value); }
+
+            @Override
+            public void reject(long lineNumber, IllegalArgumentException error) { results.add(lineNumber + "!"); }
+        };
+    }
+
+    @Test
+    void evaluatesEveryLineOfAStream() throws IOException {
+        byte[] input = "1 2 +\r\n3 4 $\n\n7 8 + 9 *".getBytes(StandardCharsets.US_ASCII);
+
+        assertEquals(4, evaluator.evaluate(new ByteArrayInputStream(input), sink));
+        assertEquals(List.of("1=3", "2!", "4=135"), results);
+    }
+
+    @Test
+    void handlesLinesLongerThanTheReadBuffer() throws IOException {
+        StringBuilder expression = new StringBuilder("0");
+        for (int i = 0; i < 20_000; i++)
+            expression.append(" 1 +");
+        byte[] input = (expression + "\n5 5 *\n").getBytes(StandardCharsets.US_ASCII);
+
+        assertEquals(2, evaluator.evaluate(new ByteArrayInputStream(input), sink));
+        assertEquals(List.of("1=20000", "2=25"), results);
+    }
+
+    @Test
+    void evaluatesMappedFile() throws IOException {
+        Path file = Files.createTempFile("rpn", ".txt");
+        try {
+            Files.writeString(file, "5 6 *\n6 +\n1 2 3 * +\n");
+
+            assertEquals(3, evaluator.evaluate(file, sink));
+            assertEquals(List.of("1=30", "2!", "3=7"), results);
+        } finally {
+            Files.delete(file);
+        }
+    }
+}
@@ -0,0 +1,127 @@
+import Operators.Operator;
+
+// Single-pass scanner over a range of a CharSequence.
+// Numbers are parsed while they are classified and operators are matched in place, so scanning
+// neither throws for non-numeric tokens nor creates a String per token.
+// Identifiers (a letter or underscore followed by letters, digits or underscores) are reported as variables.
+public class RPNTokenizer {
+    public enum TokenType { NUMBER, OPERATOR, VARIABLE, INVALID, END }
+
+    private final Operator[] operators;
+    private final String[] symbols;
+
+    private CharSequence input = "";
+    private int position;
+    private int end;
+
+    private int tokenStart;
+    private int tokenEnd;
+    private int number;
+    private Operator operator;
+
+    public RPNTokenizer(Operator[] operators) {
+        this.operators = operators.clone();
+        this.symbols = new String[operators.length];
+        for (int i = 0; i < operators.length; i++)
+            symbols[i] = operators[i].getSymbol();
+    }
+
+    // Start scanning the whole sequence
+    public void reset(CharSequence input) { reset(input, 0, input.length()); }
+
+    // Start scanning the characters in [start, end) of the sequence
+    public void reset(CharSequence input, int start, int end) {
+        this.input = input;
+        this.position = start;
+        this.end = end;
+        this.operator = null;
+    }
+
+    // Advance to the next whitespace-delimited token and classify it
+    public TokenType next() {
+        while (position < end && isWhitespace(input.charAt(position))) position++;
+        if (position == end) {
+            tokenStart = tokenEnd = position;
+            return TokenType.END;
+        }
+
+        tokenStart = position;
+        while (position < end && !isWhitespace(input.charAt(position))) position++;
+        tokenEnd = position;
+
+        if (parseNumber()) return TokenType.NUMBER;
+        if (matchOperator()) return TokenType.OPERATOR;
+        if (isIdentifier()) return TokenType.VARIABLE;
+        return TokenType.INVALID;
+    }
+
+    // Value of the last NUMBER token
+    public int getNumber() { return number; }
+
+    // Operator of the last OPERATOR token
+    public Operator getOperator() { return operator; }
+
+    public int getTokenStart() { return tokenStart; }
+
+    public int getTokenEnd() { return tokenEnd; }
+
+    // Text of the last token; allocates, so only meant for error reporting
+    public String getTokenText() { return input.subSequence(tokenStart, tokenEnd).toString(); }
+
+    // Same grammar and range as Integer.parseInt: optional sign followed by at least one decimal digit
+    private boolean parseNumber() {
+        int i = tokenStart;
+        boolean negative = false;
+        char first = input.charAt(i);
+        if (first == '-' || first == '+') {
+            negative = first == '-';
+            if (++i == tokenEnd) return false;
+        }
+
+        // Accumulate negatively so Integer.MIN_VALUE does not overflow
+        int limit = negative ? Integer.MIN_VALUE : -Integer.MAX_VALUE;
+        int multiplicationLimit = limit / 10;
+        int result = 0;
+        for (; i < tokenEnd; i++) {
+            int digit = Character.digit(input.charAt(i), 10);
+            if (digit < 0 || result < multiplicationLimit) return false;
+            result *= 10;
+            if (result < limit + digit) return false;
+            result -= digit;
+        }
+
+        number = negative ? result : -result;
+        return true;
+    }
+
+    private boolean matchOperator() {
+        int length = tokenEnd - tokenStart;
+        for (int i = 0; i < symbols.length; i++) {
+            String symbol = symbols[i];
+            if (symbol.length() != length) continue;
+
+            int j = 0;
+            while (j < length && symbol.charAt(j) == input.charAt(tokenStart + j)) j++;
+            if (j == length) {
+                operator = operators[i];
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private boolean isIdentifier() {
+        char first = input.charAt(tokenStart);
+        if (!Character.isLetter(first) && first != '_') return false;
+        for (int i = tokenStart + 1; i < tokenEnd; i++) {
+            char c = input.charAt(i);
+            if (!Character.isLetterOrDigit(c) && c != '_') return false;
+        }
+        return true;
+    }
+
+    // The characters matched by the \s regex class
+    static boolean isWhitespace(char c) {
+        return c == ' ' || c == '\t' || c == '\n' || c == '\r' || c == '\f' || c == '\u000B';
+    }
+}
@@ -0,0 +1,6 @@
+// Receives the outcome of each line evaluated by RPNStreamEvaluator, in input order
+public interface ResultSink {
+    void accept(long lineNumber, int value);
+
+    void reject(long lineNumber, IllegalArgumentException error);
+}
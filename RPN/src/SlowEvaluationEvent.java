@@ -0,0 +1,28 @@
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Timespan;
+
+// Flight Recorder event committed by EvaluationMetrics for evaluations slower than its threshold
+@Name("rpn.SlowEvaluation")
+@Label("Slow RPN Evaluation")
+@Category("RPN")
+@Description("An expression evaluation that exceeded the configured latency threshold")
+class SlowEvaluationEvent extends jdk.jfr.Event {
+    @Label("Expression Length")
+    int expressionLength;
+
+    @Label("Tokens")
+    int tokens;
+
+    @Label("Max Stack Depth")
+    int stackDepth;
+
+    @Label("Latency")
+    @Timespan(Timespan.NANOSECONDS)
+    long latency;
+
+    @Label("Failed")
+    boolean failed;
+}
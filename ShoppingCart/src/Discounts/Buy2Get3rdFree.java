@@ -1,8 +1,8 @@
 package src.Discounts;
 
 import java.util.Arrays;
+import src.PricingState;
 import src.Product;
-import src.ProductArray;
 import src.ProductComparators;
 import src.PromotionCommand;
 
@@ -13,35 +13,45 @@ import src.PromotionCommand;
 public class Buy2Get3rdFree implements PromotionCommand {
 
 	@Override
-	public void apply(ProductArray productArray) {
-		Product[] products = productArray.getProducts();
-		if (products.length < 3) return;
+	public void apply(PricingState state) {
+		for (Product freeProduct : freeProducts(state)) {
+			// Set the discount price of this product's line to 0
+			state.setDiscountPrice(state.indexOf(freeProduct.getCode()), 0);
+		}
+	}
+
+	/**
+	 * The free products are chosen by base price, so they are the same ones whenever this promotion runs;
+	 * at most their current discount prices can be saved.
+	 */
+	@Override
+	public long maxSavings(PricingState state) {
+		long savings = 0;
+		for (Product freeProduct : freeProducts(state)) savings += state.getDiscountPrice(state.indexOf(freeProduct.getCode()));
+		return savings;
+	}
+
+	private static Product[] freeProducts(PricingState state) {
+		if (state.size() < 3) return new Product[0];
 
-		// Filter out gift products and create a copy array
-		Product[] eligibleProducts =
-		  Arrays.stream(products).filter(p -> !p.getCode().startsWith("GIFT-")).toArray(Product[] ::new);
+		// Filter out gift products
+		Product[] eligibleProducts = new Product[state.size()];
+		int count = 0;
+		for (int i = 0; i < state.size(); i++) {
+			Product product = state.getProduct(i);
+			if (!product.getCode().startsWith("GIFT-")) eligibleProducts[count++] = product;
+		}
 
-		if (eligibleProducts.length < 3) return;
+		if (count < 3) return new Product[0];
 
 		// Sort products by price (cheapest first) using the ProductComparators class
+		eligibleProducts = Arrays.copyOf(eligibleProducts, count);
 		Arrays.sort(eligibleProducts, ProductComparators.BY_PRICE_ASC);
 
-		// Calculate how many free products to give (one per every 3 products)
-		int freeCount = eligibleProducts.length / 3;
-
-		// Make the cheapest products free
-		for (int i = 0; i < freeCount; i++) {
-			Product freeProduct = eligibleProducts[i];
-			// Find this product in the original array and set its discount price to 0
-			for (Product product : products) {
-				if (product.getCode().equals(freeProduct.getCode())) {
-					product.setDiscountPrice(0);
-					break;
-				}
-			}
-		}
+		// One free product per every 3 products
+		return Arrays.copyOf(eligibleProducts, count / 3);
 	}
 
 	@Override
 	public void reset() {}
-}
\ No newline at end of file
+}
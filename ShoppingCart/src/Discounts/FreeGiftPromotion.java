@@ -1,8 +1,8 @@
 package src.Discounts;
 
-import java.util.Arrays;
+import src.Money;
+import src.PricingState;
 import src.Product;
-import src.ProductArray;
 import src.PromotionCommand;
 
 /**
@@ -10,33 +10,34 @@ import src.PromotionCommand;
  * if the total order value exceeds a specified threshold.
  */
 public class FreeGiftPromotion implements PromotionCommand {
-	private final double threshold;
+	private final long threshold;
 	private final Product giftProduct;
 
 	public FreeGiftPromotion(double threshold, String giftName) {
-		this.threshold = threshold;
-		// Create the gift product with a special gift code
+		this.threshold = Money.ofMajor(threshold);
+		// Create the gift product with a special gift code; it is free, so its price is 0
 		this.giftProduct = new Product("GIFT-" + System.currentTimeMillis(), giftName, 0);
-		// Set the discount price to 0 since it's free
-		this.giftProduct.setDiscountPrice(0);
 	}
 
 	@Override
-	public void apply(ProductArray productArray) {
-		Product[] products = productArray.getProducts();
+	public void apply(PricingState state) {
+		// Check if the gift is already present in the cart
+		for (int i = 0; i < state.size(); i++) {
+			if (state.getProduct(i).getCode().startsWith("GIFT-")) return;
+		}
 
 		// Check if the total order value exceeds the threshold
-		double total = Arrays.stream(products).mapToDouble(Product::getPrice).sum();
-
-		// Check if the gift is already present in the cart
-		boolean hasGift = Arrays.stream(products).anyMatch(p -> p.getCode().startsWith("GIFT-"));
+		if (state.baseTotal() >= threshold) state.addLine(giftProduct);
+	}
 
-		if (total >= threshold && !hasGift) {
-			productArray.addProduct(giftProduct);
-			System.out.println("Free gift added: " + giftProduct.getName());
-		}
+	/**
+	 * The gift is free, so adding it never changes the total.
+	 */
+	@Override
+	public long maxSavings(PricingState state) {
+		return 0;
 	}
 
 	@Override
 	public void reset() {}
-}
\ No newline at end of file
+}
@@ -1,7 +1,7 @@
 package src.Discounts;
 
-import src.Product;
-import src.ProductArray;
+import src.Money;
+import src.PricingState;
 import src.PromotionCommand;
 
 /**
@@ -10,30 +10,50 @@ import src.PromotionCommand;
  */
 public class OneTimeCouponPromotion implements PromotionCommand {
 	private final String productCode;
-	private final double discountPercentage;
+	// In basis points
+	private final long discountPercentage;
 	private boolean used = false;
 
+	/**
+	 * @param discountPercentage percentage off, with at most two decimal places
+	 * @throws IllegalArgumentException if the percentage has more than two decimal places
+	 */
 	public OneTimeCouponPromotion(String productCode, double discountPercentage) {
+		this(productCode, Money.basisPoints(discountPercentage));
+	}
+
+	private OneTimeCouponPromotion(String productCode, long discountPercentage) {
 		this.productCode = productCode;
 		this.discountPercentage = discountPercentage;
 	}
 
 	@Override
-	public void apply(ProductArray productArray) {
+	public void apply(PricingState state) {
 		if (used) { return; }
 
-		for (Product product : productArray.getProducts()) {
-			if (product.getCode().equals(productCode)) {
-				double currentPrice = product.getDiscountPrice();
-				product.setDiscountPrice(currentPrice * (1 - discountPercentage / 100));
-				used = true;
-				break;
-			}
+		int line = state.indexOf(productCode);
+		if (line != -1) {
+			state.setDiscountPrice(line, Money.discount(state.getDiscountPrice(line), discountPercentage));
+			used = true;
 		}
 	}
 
+	/**
+	 * Ignores whether the coupon was used, as the bound must not depend on the promotion's own state.
+	 */
+	@Override
+	public long maxSavings(PricingState state) {
+		int line = state.indexOf(productCode);
+		return line == -1 ? 0 : Money.percentOf(state.getDiscountPrice(line), discountPercentage);
+	}
+
+	@Override
+	public PromotionCommand copy() {
+		return new OneTimeCouponPromotion(productCode, discountPercentage);
+	}
+
 	@Override
 	public void reset() {
 		used = false;
 	}
-}
\ No newline at end of file
+}
@@ -1,8 +1,7 @@
 package src.Discounts;
 
-import java.util.Arrays;
-import src.Product;
-import src.ProductArray;
+import src.Money;
+import src.PricingState;
 import src.PromotionCommand;
 
 /**
@@ -12,27 +11,42 @@ import src.PromotionCommand;
  */
 
 public class OrderValuePercentageDiscount implements PromotionCommand {
-	private final double threshold;
-	private final double discountPercentage;
+	private final long threshold;
+	// In basis points
+	private final long discountPercentage;
 
+	/**
+	 * @param discountPercentage percentage off, with at most two decimal places
+	 * @throws IllegalArgumentException if the percentage has more than two decimal places
+	 */
 	public OrderValuePercentageDiscount(double threshold, double discountPercentage) {
-		this.threshold = threshold;
-		this.discountPercentage = discountPercentage;
+		this.threshold = Money.ofMajor(threshold);
+		this.discountPercentage = Money.basisPoints(discountPercentage);
 	}
 
 	@Override
-	public void apply(ProductArray productArray) {
-		Product[] products = productArray.getProducts();
-		double total = Arrays.stream(products).mapToDouble(Product::getPrice).sum();
-
-		if (total > threshold) {
-			double discountFactor = 1 - (discountPercentage / 100);
-			for (Product product : products) {
-				product.setDiscountPrice(product.getDiscountPrice() * discountFactor);
+	public void apply(PricingState state) {
+		if (state.baseTotal() > threshold) {
+			// Each line is discounted and rounded on its own, so the total is exact
+			for (int i = 0; i < state.size(); i++) {
+				state.setDiscountPrice(i, Money.discount(state.getDiscountPrice(i), discountPercentage));
 			}
 		}
 	}
 
+	/**
+	 * The threshold is checked against base prices, so whether the discount applies does not depend on
+	 * the order; if it does, it takes a rounded share of each line's current discount price.
+	 */
+	@Override
+	public long maxSavings(PricingState state) {
+		if (state.baseTotal() <= threshold) return 0;
+
+		long savings = 0;
+		for (int i = 0; i < state.size(); i++) savings += Money.percentOf(state.getDiscountPrice(i), discountPercentage);
+		return savings;
+	}
+
 	@Override
 	public void reset() {}
-}
\ No newline at end of file
+}
@@ -0,0 +1,65 @@
+package src;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Fixed-point money arithmetic on {@code long} amounts of minor units (cents). Pricing runs entirely on
+ * these primitives, so totals are exact and never drift the way compounded {@code double} discounts do.
+ * Percentages are expressed in basis points (1/100 of a percent).
+ * Rounding rule: a percentage of an amount is rounded half away from zero to the nearest minor unit, and
+ * a discount takes that rounded share off the amount.
+ */
+public final class Money {
+	public static final int MINOR_DIGITS = 2;
+	public static final long MINOR_PER_MAJOR = 100;
+	public static final long BASIS_POINTS_PER_WHOLE = 10_000;
+
+	private Money() {}
+
+	/**
+	 * Converts a decimal amount of major units to minor units, rounding half up at the minor unit.
+	 * Conversion goes through the decimal form of {@code amount}, so 0.615 becomes 62 rather than 61.
+	 */
+	public static long ofMajor(double amount) {
+		return BigDecimal.valueOf(amount).setScale(MINOR_DIGITS, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+	}
+
+	/**
+	 * Converts minor units to major units for display and the {@code double} APIs.
+	 */
+	public static double toMajor(long minor) { return (double) minor / MINOR_PER_MAJOR; }
+
+	/**
+	 * Converts a percentage to basis points. Percentages finer than 1/100 of a percent, such as 33.333,
+	 * are rejected rather than silently rounded.
+	 *
+	 * @throws IllegalArgumentException if the percentage is not a whole number of basis points
+	 */
+	public static long basisPoints(double percentage) {
+		try {
+			return BigDecimal.valueOf(percentage).movePointRight(2).setScale(0, RoundingMode.UNNECESSARY).longValueExact();
+		} catch (ArithmeticException e) {
+			throw new IllegalArgumentException("Percentage " + percentage + " is not a whole number of basis points");
+		}
+	}
+
+	/**
+	 * Returns {@code basisPoints} of {@code amount}, rounded half away from zero to the minor unit.
+	 */
+	public static long percentOf(long amount, long basisPoints) {
+		long product = Math.multiplyExact(amount, basisPoints);
+		long half = BASIS_POINTS_PER_WHOLE / 2;
+		return product >= 0 ? (product + half) / BASIS_POINTS_PER_WHOLE : (product - half) / BASIS_POINTS_PER_WHOLE;
+	}
+
+	/**
+	 * Returns {@code amount} less {@code basisPoints} of it.
+	 */
+	public static long discount(long amount, long basisPoints) { return amount - percentOf(amount, basisPoints); }
+
+	/**
+	 * Formats minor units as a plain decimal string such as {@code -12.05}.
+	 */
+	public static String format(long minor) { return BigDecimal.valueOf(minor, MINOR_DIGITS).toPlainString(); }
+}
@@ -0,0 +1,146 @@
+package src;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Columnar pricing state for the lines of a cart. Base and discounted prices live in primitive arrays of
+ * minor units (see {@link Money}) indexed by line position, so resetting all discounts is a single array
+ * copy and totals are exact, plain loops.
+ * Lines added while pricing, such as free gifts, are appended after the initial lines and dropped on reset.
+ */
+public final class PricingState {
+	private Product[] products;
+	private long[] basePrices;
+	private long[] discountPrices;
+	private final int initialSize;
+	private int size;
+	// First line of each code among the initial lines, built on first lookup and shared by copies
+	private Map<String, Integer> initialLinesByCode;
+
+	/**
+	 * Creates a state over the given products, starting from their current discount prices.
+	 */
+	public PricingState(Product[] products) {
+		this.size = this.initialSize = products.length;
+		this.products = products.clone();
+		this.basePrices = new long[size];
+		this.discountPrices = new long[size];
+		for (int i = 0; i < size; i++) {
+			basePrices[i] = products[i].getPriceMinor();
+			discountPrices[i] = products[i].getDiscountPriceMinor();
+		}
+	}
+
+	private PricingState(PricingState other) {
+		this.initialSize = other.initialSize;
+		this.products = other.products.clone();
+		this.basePrices = other.basePrices.clone();
+		this.discountPrices = other.discountPrices.clone();
+		this.size = other.size;
+		this.initialLinesByCode = other.initialLinesByCode;
+	}
+
+	public int size() { return size; }
+
+	public Product getProduct(int line) { return products[checkLine(line)]; }
+
+	public long getBasePrice(int line) { return basePrices[checkLine(line)]; }
+
+	public long getDiscountPrice(int line) { return discountPrices[checkLine(line)]; }
+
+	public void setDiscountPrice(int line, long discountPrice) { discountPrices[checkLine(line)] = discountPrice; }
+
+	/**
+	 * Returns the first line holding a product with the given code, or -1 if there is none.
+	 */
+	public int indexOf(String code) {
+		if (initialLinesByCode == null) {
+			Map<String, Integer> index = new HashMap<>();
+			for (int i = 0; i < initialSize; i++) index.putIfAbsent(products[i].getCode(), i);
+			initialLinesByCode = index;
+		}
+		Integer line = initialLinesByCode.get(code);
+		if (line != null) return line;
+
+		// Lines added while pricing are few, so they are scanned
+		for (int i = initialSize; i < size; i++) {
+			if (products[i].getCode().equals(code)) return i;
+		}
+		return -1;
+	}
+
+	/**
+	 * Appends a line for the given product at its current discount price and returns its position.
+	 */
+	public int addLine(Product product) {
+		if (size == products.length) {
+			int capacity = Math.max(4, size * 2);
+			products = Arrays.copyOf(products, capacity);
+			basePrices = Arrays.copyOf(basePrices, capacity);
+			discountPrices = Arrays.copyOf(discountPrices, capacity);
+		}
+		products[size] = product;
+		basePrices[size] = product.getPriceMinor();
+		discountPrices[size] = product.getDiscountPriceMinor();
+		return size++;
+	}
+
+	public long baseTotal() {
+		long total = 0;
+		for (int i = 0; i < size; i++) total += basePrices[i];
+		return total;
+	}
+
+	public long discountTotal() {
+		long total = 0;
+		for (int i = 0; i < size; i++) total += discountPrices[i];
+		return total;
+	}
+
+	/**
+	 * Drops any lines added since construction and resets every discount price to its base price.
+	 */
+	public void reset() {
+		Arrays.fill(products, initialSize, size, null);
+		size = initialSize;
+		System.arraycopy(basePrices, 0, discountPrices, 0, size);
+	}
+
+	/**
+	 * Returns an independent copy of this state.
+	 */
+	public PricingState copy() { return new PricingState(this); }
+
+	/**
+	 * Overwrites this state with the lines and prices of {@code other}, reusing this state's arrays where
+	 * they are large enough. Both states must have been created from the same products.
+	 */
+	public void copyFrom(PricingState other) {
+		if (products.length < other.size) {
+			products = new Product[other.products.length];
+			basePrices = new long[other.products.length];
+			discountPrices = new long[other.products.length];
+		}
+		if (size > other.size) Arrays.fill(products, other.size, size, null);
+		System.arraycopy(other.products, 0, products, 0, other.size);
+		System.arraycopy(other.basePrices, 0, basePrices, 0, other.size);
+		System.arraycopy(other.discountPrices, 0, discountPrices, 0, other.size);
+		size = other.size;
+	}
+
+	/**
+	 * Returns the lines as products carrying their current discount prices.
+	 */
+	public Product[] toProducts() {
+		Product[] priced = new Product[size];
+		for (int i = 0; i < size; i++) priced[i] = products[i].withDiscountPriceMinor(discountPrices[i]);
+		return priced;
+	}
+
+	private int checkLine(int line) {
+		if (line < 0 || line >= size) throw new IndexOutOfBoundsException("Line " + line + " out of bounds for size " + size);
+		return line;
+	}
+}
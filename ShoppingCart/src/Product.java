@@ -1,27 +1,66 @@
 package src;
 
-public class Product {
+import java.util.Objects;
+
+/**
+ * An immutable cart line item. Prices are held in minor units (see {@link Money}); the {@code double}
+ * accessors convert for display. The discount price is the result of pricing a cart and is not part of the
+ * product's identity: two products are equal when their code, name and base price match.
+ */
+public final class Product {
 	private final String code;
 	private final String name;
-	private final double price;
-	private double discountPrice;
+	private final long priceMinor;
+	private final long discountPriceMinor;
+
+	public Product(String code, String name, double price) { this(code, name, Money.ofMajor(price)); }
+
+	private Product(String code, String name, long priceMinor) { this(code, name, priceMinor, priceMinor); }
 
-	public Product(String code, String name, double price) {
+	private Product(String code, String name, long priceMinor, long discountPriceMinor) {
 		this.code = code;
 		this.name = name;
-		this.price = price;
-		this.discountPrice = price;
+		this.priceMinor = priceMinor;
+		this.discountPriceMinor = discountPriceMinor;
 	}
 
+	/**
+	 * Creates a product priced in minor units.
+	 */
+	public static Product ofMinor(String code, String name, long priceMinor) { return new Product(code, name, priceMinor); }
+
 	public String getCode() { return code; }
 
 	public String getName() { return name; }
 
-	public double getPrice() { return price; }
+	public double getPrice() { return Money.toMajor(priceMinor); }
+
+	public double getDiscountPrice() { return Money.toMajor(discountPriceMinor); }
 
-	public double getDiscountPrice() { return discountPrice; }
+	public long getPriceMinor() { return priceMinor; }
 
-	public void setDiscountPrice(double discountPrice) { this.discountPrice = discountPrice; }
+	public long getDiscountPriceMinor() { return discountPriceMinor; }
+
+	/**
+	 * Returns this product priced at the given discount price.
+	 */
+	public Product withDiscountPrice(double discountPrice) { return withDiscountPriceMinor(Money.ofMajor(discountPrice)); }
+
+	/**
+	 * Returns this product priced at the given discount price in minor units.
+	 */
+	public Product withDiscountPriceMinor(long discountPriceMinor) {
+		if (discountPriceMinor == this.discountPriceMinor) return this;
+		return new Product(code, name, priceMinor, discountPriceMinor);
+	}
+
+	@Override
+	public boolean equals(Object o) {
+		if (this == o) return true;
+		if (!(o instanceof Product other)) return false;
+		return priceMinor == other.priceMinor && code.equals(other.code) && name.equals(other.name);
+	}
 
-	public void resetDiscountPrice() { this.discountPrice = price; }
-}
\ No newline at end of file
+	@Override
+	public int hashCode() { return Objects.hash(code, name, priceMinor); }
+}
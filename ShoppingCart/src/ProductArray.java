@@ -1,42 +1,116 @@
 package src;
 
 import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
 
 /**
  * Wrapper class for Product array to allow modification of the array content
  * while maintaining the same reference.
+ * The array grows by doubling its capacity, and a hash index from product code to slot makes lookup and
+ * removal by code constant time.
  */
 public class ProductArray {
+	private static final int MIN_CAPACITY = 8;
+
 	private Product[] products;
+	private int size;
+	// Slot of one product for each code; codes held by more than one product are counted in duplicateCodes
+	private final Map<String, Integer> slotsByCode = new HashMap<>();
+	private int duplicateCodes;
+
+	public ProductArray(Product[] products) { assign(products); }
+
+	/**
+	 * Returns a copy of the products, in slot order.
+	 */
+	public Product[] getProducts() { return Arrays.copyOf(products, size); }
 
-	public ProductArray(Product[] products) { this.products = products; }
+	public void setProducts(Product[] products) { assign(products); }
 
-	public Product[] getProducts() { return products; }
+	public int size() { return size; }
 
-	public void setProducts(Product[] products) { this.products = products; }
+	public Product get(int slot) {
+		if (slot < 0 || slot >= size) throw new IndexOutOfBoundsException("Slot " + slot + " out of bounds for size " + size);
+		return products[slot];
+	}
+
+	/**
+	 * Returns the slot of a product with the given code, or -1 if there is none.
+	 */
+	public int indexOf(String code) {
+		Integer slot = slotsByCode.get(code);
+		return slot == null ? -1 : slot;
+	}
 
 	public void addProduct(Product product) {
-		Product[] newProducts = Arrays.copyOf(products, products.length + 1);
-		newProducts[products.length] = product;
-		products = newProducts;
+		ensureCapacity(size + 1);
+		append(product);
 	}
 
+	/**
+	 * Adds all the given products, growing the array at most once.
+	 */
+	public void addProducts(Collection<Product> newProducts) {
+		ensureCapacity(size + newProducts.size());
+		for (Product product : newProducts) append(product);
+	}
+
+	/**
+	 * Removes a product with the given code. The last product is moved into the freed slot, so the
+	 * order of the remaining products is not preserved.
+	 */
 	public void removeProduct(String code) {
-		int index = -1;
-		for (int i = 0; i < products.length; i++) {
+		int index = indexOf(code);
+		if (index == -1) return;
+
+		slotsByCode.remove(code);
+		int last = --size;
+		if (index != last) {
+			products[index] = products[last];
+			slotsByCode.put(products[index].getCode(), index);
+		}
+		products[last] = null;
+
+		// Another product may still hold the removed code; only carts with repeated codes pay for the scan
+		if (duplicateCodes > 0) repointDuplicate(code);
+	}
+
+	public boolean isEmpty() { return size == 0; }
+
+	// Shared by the constructor and setProducts, so the constructor calls no overridable method
+	private void assign(Product[] products) {
+		this.products = Arrays.copyOf(products, Math.max(MIN_CAPACITY, products.length));
+		this.size = products.length;
+		reindex();
+	}
+
+	private void append(Product product) {
+		products[size] = product;
+		if (slotsByCode.putIfAbsent(product.getCode(), size) != null) duplicateCodes++;
+		size++;
+	}
+
+	private void repointDuplicate(String code) {
+		for (int i = 0; i < size; i++) {
 			if (products[i].getCode().equals(code)) {
-				index = i;
-				break;
+				slotsByCode.put(code, i);
+				duplicateCodes--;
+				return;
 			}
 		}
+	}
 
-		if (index != -1) {
-			Product[] newProducts = new Product[products.length - 1];
-			System.arraycopy(products, 0, newProducts, 0, index);
-			System.arraycopy(products, index + 1, newProducts, index, products.length - index - 1);
-			products = newProducts;
-		}
+	private void ensureCapacity(int capacity) {
+		if (capacity > products.length) products = Arrays.copyOf(products, Math.max(capacity, products.length * 2));
 	}
 
-	public boolean isEmpty() { return products.length == 0; }
-}
\ No newline at end of file
+	private void reindex() {
+		slotsByCode.clear();
+		duplicateCodes = 0;
+		for (int i = 0; i < size; i++) {
+			if (slotsByCode.putIfAbsent(products[i].getCode(), i) != null) duplicateCodes++;
+		}
+	}
+}
@@ -13,7 +13,7 @@ public class ProductComparators {
 	 * order.
 	 */
 	public static final Comparator<Product> BY_PRICE_DESC = (p1, p2) -> {
-		int priceComparison = Double.compare(p2.getPrice(), p1.getPrice());
+		int priceComparison = Long.compare(p2.getPriceMinor(), p1.getPriceMinor());
 		return priceComparison != 0 ? priceComparison : p1.getName().compareTo(p2.getName());
 	};
 
@@ -23,7 +23,7 @@ public class ProductComparators {
 	 * order.
 	 */
 	public static final Comparator<Product> BY_PRICE_ASC = (p1, p2) -> {
-		int priceComparison = Double.compare(p1.getPrice(), p2.getPrice());
+		int priceComparison = Long.compare(p1.getPriceMinor(), p2.getPriceMinor());
 		return priceComparison != 0 ? priceComparison : p1.getName().compareTo(p2.getName());
 	};
 
@@ -38,7 +38,7 @@ public class ProductComparators {
 	 * ascending order.
 	 */
 	public static final Comparator<Product> BY_DISCOUNT_PRICE_DESC = (p1, p2) -> {
-		int priceComparison = Double.compare(p2.getDiscountPrice(), p1.getDiscountPrice());
+		int priceComparison = Long.compare(p2.getDiscountPriceMinor(), p1.getDiscountPriceMinor());
 		return priceComparison != 0 ? priceComparison : p1.getName().compareTo(p2.getName());
 	};
 }
\ No newline at end of file
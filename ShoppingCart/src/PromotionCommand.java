@@ -1,7 +1,42 @@
 package src;
 
 public interface PromotionCommand {
-	void apply(ProductArray productArray);
+	/**
+	 * Applies this promotion to the discount prices of {@code state}.
+	 */
+	void apply(PricingState state);
+
+	/**
+	 * Applies this promotion to the products of {@code productArray}, replacing them with products that carry
+	 * the resulting discount prices.
+	 */
+	default void apply(ProductArray productArray) {
+		PricingState state = new PricingState(productArray.getProducts());
+		apply(state);
+		productArray.setProducts(state.toProducts());
+	}
 
 	void reset();
-}
\ No newline at end of file
+
+	/**
+	 * Returns an upper bound, in minor units, on how much applying this promotion could still lower the
+	 * total of {@code state}, from its current discount prices and in any order relative to other promotions.
+	 * Promotions are assumed never to raise a price. The default assumes every line could become free,
+	 * which is always safe but prunes nothing.
+	 * <p>
+	 * The bound must be pure: it depends only on {@code state}, modifies neither {@code state} nor this
+	 * promotion, and ignores internal state such as whether a one-time coupon was already used, so it
+	 * bounds an application from the promotion's reset state.
+	 */
+	default long maxSavings(PricingState state) {
+		return state.discountTotal();
+	}
+
+	/**
+	 * Returns an equivalent promotion that shares no mutable state with this one, so that copies can be
+	 * applied concurrently. The default returns {@code this} and is only correct for stateless promotions.
+	 */
+	default PromotionCommand copy() {
+		return this;
+	}
+}
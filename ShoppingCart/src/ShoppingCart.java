@@ -2,17 +2,45 @@ package src;
 
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
 import java.util.Comparator;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * The ShoppingCart class represents a shopping cart that holds products and
  * applies promotions.
  */
 public class ShoppingCart {
+	// Remaining promotions below which a parallel search worker explores its subtree alone
+	private static final int SEQUENTIAL_SEARCH_DEPTH = 5;
+
+	// Comparators whose sorted views are cached for the lifetime of the cart
+	private static final Set<Comparator<Product>> SHARED_COMPARATORS = Set.of(ProductComparators.BY_PRICE_DESC,
+	  ProductComparators.BY_PRICE_ASC, ProductComparators.BY_NAME, ProductComparators.BY_DISCOUNT_PRICE_DESC);
+
 	private final ProductArray productArray;
+	// Sorted views of productArray for the shared comparators used so far, kept in sync with every mutation
+	private final Map<Comparator<Product>, SortedProductView> sortedViews;
 	private final List<PromotionCommand> promotions;
-	private Comparator<Product> sortingStrategy;
+	private SortedProductView sortedView;
+	// View for the current strategy when it is not a shared comparator; maintained only while it is active
+	private SortedProductView customView;
+	private boolean parallelSearch;
+
+	// Bumped on every change to the products or the promotions; the cached total is valid while both match
+	private long contentVersion;
+	private long promotionVersion;
+	private long cachedContentVersion = -1;
+	private long cachedPromotionVersion = -1;
+	private long cachedTotal;
+	private List<PromotionCommand> optimalOrder = List.of();
+	private boolean lastTotalCached;
 
 	/**
 	 * Constructs an empty ShoppingCart with default sorting strategy by price
@@ -20,171 +48,383 @@ public class ShoppingCart {
 	 */
 	public ShoppingCart() {
 		this.productArray = new ProductArray(new Product[0]);
+		this.sortedViews = new HashMap<>();
 		this.promotions = new ArrayList<>();
-		this.sortingStrategy = ProductComparators.BY_PRICE_DESC;
+		// The cart starts empty, so the views are created directly rather than through methods that use this
+		this.sortedView = new SortedProductView(ProductComparators.BY_PRICE_DESC);
+		sortedViews.put(ProductComparators.BY_PRICE_DESC, sortedView);
+		// Backs the cheapest and most expensive product queries
+		sortedViews.put(ProductComparators.BY_PRICE_ASC, new SortedProductView(ProductComparators.BY_PRICE_ASC));
 	}
 
 	/**
-	 * Adds a product to the shopping cart and sorts the products.
+	 * Adds a product to the shopping cart, inserting it into every sorted view.
 	 */
 	public void addProduct(Product product) {
 		productArray.addProduct(product);
-		sortProducts();
+		addToViews(product);
+		contentVersion++;
+	}
+
+	/**
+	 * Adds several products to the shopping cart at once.
+	 */
+	public void addProducts(Collection<Product> products) {
+		productArray.addProducts(products);
+		for (Product product : products) addToViews(product);
+		contentVersion++;
 	}
 
 	/**
 	 * Removes a product from the shopping cart by its code.
 	 */
 	public void removeProduct(String code) {
+		int slot = productArray.indexOf(code);
+		if (slot == -1) return;
+
+		Product product = productArray.get(slot);
 		productArray.removeProduct(code);
-		sortProducts();
+		removeFromViews(product);
+		contentVersion++;
 	}
 
 	/**
-	 * Sets the sorting strategy for the products and sorts them.
+	 * Sets the sorting strategy for the products. Views for the {@link ProductComparators} constants are
+	 * built the first time they are used and maintained from then on, so switching back to one does not sort
+	 * again. Any other comparator gets a view that is built on demand and dropped when the strategy changes,
+	 * so comparators created per call do not accumulate.
 	 */
 	public void setSortingStrategy(Comparator<Product> sortingStrategy) {
-		this.sortingStrategy = sortingStrategy;
-		sortProducts();
+		if (SHARED_COMPARATORS.contains(sortingStrategy)) {
+			customView = null;
+			sortedView = sortedView(sortingStrategy);
+		} else if (customView == null || customView.getComparator() != sortingStrategy) {
+			customView = buildView(sortingStrategy);
+			sortedView = customView;
+		}
 	}
 
 	/**
-	 * Sorts the products using the current sorting strategy.
+	 * Returns the maintained view of the products in the order of a shared comparator, building it if needed.
 	 */
-	private void sortProducts() {
-		Product[] products = productArray.getProducts();
-		Arrays.sort(products, sortingStrategy);
-		productArray.setProducts(products);
+	private SortedProductView sortedView(Comparator<Product> comparator) {
+		return sortedViews.computeIfAbsent(comparator, this::buildView);
+	}
+
+	private SortedProductView buildView(Comparator<Product> comparator) {
+		SortedProductView view = new SortedProductView(comparator);
+		for (int i = 0; i < productArray.size(); i++) view.add(productArray.get(i));
+		return view;
 	}
 
-	public void addPromotion(PromotionCommand promotion) { promotions.add(promotion); }
+	private void addToViews(Product product) {
+		for (SortedProductView view : sortedViews.values()) view.add(product);
+		if (customView != null) customView.add(product);
+	}
+
+	private void removeFromViews(Product product) {
+		for (SortedProductView view : sortedViews.values()) view.remove(product);
+		if (customView != null) customView.remove(product);
+	}
 
-	public void removePromotion(PromotionCommand promotion) { promotions.remove(promotion); }
+	public void addPromotion(PromotionCommand promotion) {
+		promotions.add(promotion);
+		promotionVersion++;
+	}
+
+	public void removePromotion(PromotionCommand promotion) {
+		if (promotions.remove(promotion)) promotionVersion++;
+	}
+
+	/**
+	 * Enables or disables splitting the promotion order search over the common fork-join pool.
+	 * The parallel search prices copies of the pricing state and promotions (see {@link PromotionCommand#copy()})
+	 * and returns the same total and order as the sequential one.
+	 */
+	public void setParallelSearch(boolean parallelSearch) { this.parallelSearch = parallelSearch; }
 
 	/**
 	 * Calculates the total price after applying promotions in the optimal order
 	 */
-	public double calculateTotal() {
-		if (productArray.isEmpty()) return 0.0;
-		return findOptimalPromotionApplication();
+	public double calculateTotal() { return Money.toMajor(calculateTotalMinor()); }
+
+	/**
+	 * Calculates the total price in minor units after applying promotions in the optimal order.
+	 * The total and the chosen order are cached until the products or the promotions change.
+	 */
+	public long calculateTotalMinor() {
+		lastTotalCached = cachedContentVersion == contentVersion && cachedPromotionVersion == promotionVersion;
+		if (lastTotalCached) return cachedTotal;
+
+		if (productArray.isEmpty()) {
+			cachedTotal = 0;
+			optimalOrder = List.of();
+		} else {
+			cachedTotal = findOptimalPromotionApplication();
+		}
+		cachedContentVersion = contentVersion;
+		cachedPromotionVersion = promotionVersion;
+		return cachedTotal;
 	}
 
+	/**
+	 * Returns whether the last calculation of the total was answered from the cache.
+	 */
+	public boolean wasLastTotalCached() { return lastTotalCached; }
+
+	/**
+	 * Returns the promotion order chosen by the last calculation of the total.
+	 */
+	public List<PromotionCommand> getOptimalPromotionOrder() { return optimalOrder; }
+
 	/**
 	 * Determines the optimal order to apply promotions to minimize the total cost.
+	 * Orderings are explored depth-first: each level applies one more promotion on top of the shared prefix
+	 * and restores the prefix state when backtracking, instead of replaying every ordering from scratch.
+	 * A branch is pruned once its lower bound (current total minus the most the remaining promotions could
+	 * still save) cannot beat the best complete ordering found so far.
 	 */
-	private double findOptimalPromotionApplication() {
+	private long findOptimalPromotionApplication() {
+		PricingState state = new PricingState(getProducts());
 		if (promotions.size() <= 1) {
 			// If 0 or 1 promotion, just apply normally
-			resetAllDiscounts();
-			applyPromotions(promotions);
-			return sumDiscountPrices();
+			resetAllDiscounts(state);
+			for (PromotionCommand promotion : promotions) promotion.apply(state);
+			optimalOrder = List.copyOf(promotions);
+			return publishPrices(state);
 		}
 
-		// Try all possible permutations of promotion orders
-		List<List<PromotionCommand>> permutations = generatePermutations(promotions);
-		double lowestTotal = Double.MAX_VALUE;
-		List<PromotionCommand> bestOrder = null;
+		PromotionSearch best;
+		if (parallelSearch && promotions.size() > SEQUENTIAL_SEARCH_DEPTH) {
+			state.reset();
+			best = ForkJoinPool.commonPool().invoke(new SearchTask(state, new int[0], new AtomicLong(Long.MAX_VALUE)));
+		} else {
+			resetAllDiscounts(state);
+			best = new PromotionSearch(promotions.toArray(new PromotionCommand[0]), state, null);
+			best.explore(0);
+		}
 
-		for (List<PromotionCommand> permutation : permutations) {
-			resetAllDiscounts();
+		// Apply the best order one final time
+		resetAllDiscounts(state);
+		PromotionCommand[] order = new PromotionCommand[best.bestOrder.length];
+		for (int i = 0; i < order.length; i++) {
+			order[i] = promotions.get(best.bestOrder[i]);
+			order[i].apply(state);
+		}
+		optimalOrder = List.of(order);
+		publishPrices(state);
 
-			// Apply promotions in this order
-			applyPromotions(permutation);
+		return best.lowestTotal;
+	}
 
-			double total = sumDiscountPrices();
-			if (total < lowestTotal) {
-				lowestTotal = total;
-				bestOrder = permutation;
-			}
+	/**
+	 * Replaces the cart's products with the priced lines of {@code state} and returns their total.
+	 * Only lines whose price changed, or that were added while pricing, are moved in the sorted views.
+	 */
+	private long publishPrices(PricingState state) {
+		Product[] priced = state.toProducts();
+		for (int i = 0; i < priced.length; i++) {
+			Product original = i < productArray.size() ? state.getProduct(i) : null;
+			if (priced[i] == original) continue;
+			if (original != null) removeFromViews(original);
+			addToViews(priced[i]);
 		}
+		productArray.setProducts(priced);
+		return state.discountTotal();
+	}
 
-		// Apply the best permutation one final time
-		resetAllDiscounts();
-		if (bestOrder != null) { applyPromotions(bestOrder); }
+	/**
+	 * State of one branch-and-bound search over promotion orders, working on its own pricing state and promotions.
+	 * Orders are visited in the same sequence as a swap-based permutation walk, and only a strictly lower
+	 * total replaces the best one, so ties are resolved the same way as trying every permutation in that
+	 * sequence. Totals and bounds are exact minor units, so pruning needs no slack for rounding.
+	 */
+	private static class PromotionSearch {
+		private final PromotionCommand[] promotions;
+		private final PricingState state;
+		private final AtomicLong sharedBound;
+		private final int[] order;
+		private final PricingState[] savedStates;
+		private long lowestTotal = Long.MAX_VALUE;
+		private int[] bestOrder;
 
-		return lowestTotal;
-	}
+		/**
+		 * Creates a search over {@code promotions} applied to {@code state}. When {@code sharedBound}
+		 * is not null, it holds the best total any search has found so far. The promotions must all be in
+		 * their reset state.
+		 */
+		PromotionSearch(PromotionCommand[] promotions, PricingState state, AtomicLong sharedBound) {
+			this.promotions = promotions;
+			this.state = state;
+			this.sharedBound = sharedBound;
+			this.order = new int[promotions.length];
+			for (int i = 0; i < order.length; i++) order[i] = i;
+			this.savedStates = new PricingState[order.length];
+		}
 
-	private void applyPromotions(List<PromotionCommand> promotionsToApply) {
-		for (PromotionCommand promotion : promotionsToApply) {
-			promotion.apply(productArray);
+		void explore(int depth) {
+			long total = state.discountTotal();
+			if (depth == order.length) {
+				if (total < lowestTotal) {
+					lowestTotal = total;
+					bestOrder = order.clone();
+					if (sharedBound != null) lowerSharedBound(total);
+				}
+				return;
+			}
+
+			if (lowerBound(total, depth) > bestKnownTotal()) return;
+
+			// Promotions not applied on the current path are always in their reset state; backtracking undoes
+			// both the pricing and the promotion's own state before the next choice is tried
+			saveState(depth);
+			for (int i = depth; i < order.length; i++) {
+				swap(order, depth, i);
+				promotions[order[depth]].apply(state);
+				explore(depth + 1);
+				promotions[order[depth]].reset();
+				restoreState(depth);
+				swap(order, depth, i);
+			}
 		}
-	}
 
-	private void resetAllDiscounts() {
-		for (PromotionCommand promotion : promotions) {
-			promotion.reset();
+		/**
+		 * Applies the first {@code prefix.length} choices of the swap walk, leaving the search positioned
+		 * at depth {@code prefix.length}. The promotions must all be in their reset state.
+		 */
+		void applyPrefix(int[] prefix) {
+			for (int depth = 0; depth < prefix.length; depth++) {
+				swap(order, depth, prefix[depth]);
+				promotions[order[depth]].apply(state);
+			}
 		}
-		for (Product product : productArray.getProducts()) {
-			product.resetDiscountPrice();
+
+		private long bestKnownTotal() {
+			if (sharedBound == null) return lowestTotal;
+			return Math.min(lowestTotal, sharedBound.get());
 		}
-	}
 
-	private double sumDiscountPrices() {
-		return Arrays.stream(productArray.getProducts()).mapToDouble(Product::getDiscountPrice).sum();
+		private void lowerSharedBound(long total) { sharedBound.accumulateAndGet(total, Math::min); }
+
+		private long lowerBound(long total, int depth) {
+			long savings = 0;
+			for (int i = depth; i < order.length; i++) savings += Math.max(0, promotions[order[i]].maxSavings(state));
+			return total - savings;
+		}
+
+		private void saveState(int depth) {
+			if (savedStates[depth] == null) savedStates[depth] = state.copy();
+			else savedStates[depth].copyFrom(state);
+		}
+
+		private void restoreState(int depth) { state.copyFrom(savedStates[depth]); }
+
+		/**
+		 * Keeps the better of two results; on equal totals the one earlier in visit order wins.
+		 */
+		static PromotionSearch better(PromotionSearch earlier, PromotionSearch later) {
+			if (later.bestOrder == null) return earlier;
+			if (earlier.bestOrder == null || later.lowestTotal < earlier.lowestTotal) return later;
+			return earlier;
+		}
 	}
 
 	/**
-	 * Generates all possible permutations of the given list.
+	 * Searches the orderings that start with a given prefix of the swap walk. Near the root the ordering
+	 * space is split into one subtask per next choice; deeper down a worker prices every remaining ordering
+	 * against its own copy of the pricing state and promotions, so the cart itself is never touched.
+	 * Workers share only the best total found so far, and pruning never discards an ordering that could tie
+	 * it, so merging subtasks in visit order gives the same result as the sequential search.
 	 */
-	private <T> List<List<T>> generatePermutations(List<T> list) {
-		List<List<T>> result = new ArrayList<>();
-		permuteHelper(new ArrayList<>(list), 0, result);
-		return result;
-	}
+	private class SearchTask extends RecursiveTask<PromotionSearch> {
+		private static final long serialVersionUID = 1L;
+
+		// ForkJoinTask is Serializable, but search tasks never leave the pool, so the pricing state is not either
+		private final transient PricingState base;
+		private final int[] prefix;
+		private final AtomicLong sharedBound;
+
+		SearchTask(PricingState base, int[] prefix, AtomicLong sharedBound) {
+			this.base = base;
+			this.prefix = prefix;
+			this.sharedBound = sharedBound;
+		}
+
+		@Override
+		protected PromotionSearch compute() {
+			int remaining = promotions.size() - prefix.length;
+			if (remaining <= SEQUENTIAL_SEARCH_DEPTH) {
+				PromotionSearch search = new PromotionSearch(copyPromotions(), base.copy(), sharedBound);
+				search.applyPrefix(prefix);
+				search.explore(prefix.length);
+				return search;
+			}
+
+			List<SearchTask> subtasks = new ArrayList<>(remaining);
+			for (int i = prefix.length; i < promotions.size(); i++) {
+				int[] childPrefix = Arrays.copyOf(prefix, prefix.length + 1);
+				childPrefix[prefix.length] = i;
+				subtasks.add(new SearchTask(base, childPrefix, sharedBound));
+			}
+			invokeAll(subtasks);
 
-	private <T> void permuteHelper(List<T> list, int start, List<List<T>> result) {
-		if (start == list.size() - 1) {
-			result.add(new ArrayList<>(list));
-			return;
+			PromotionSearch best = subtasks.get(0).join();
+			for (int i = 1; i < subtasks.size(); i++) best = PromotionSearch.better(best, subtasks.get(i).join());
+			return best;
 		}
 
-		for (int i = start; i < list.size(); i++) {
-			swap(list, start, i);
-			permuteHelper(list, start + 1, result);
-			swap(list, start, i); // backtrack
+		private PromotionCommand[] copyPromotions() {
+			PromotionCommand[] copies = new PromotionCommand[promotions.size()];
+			for (int i = 0; i < copies.length; i++) copies[i] = promotions.get(i).copy();
+			return copies;
 		}
 	}
 
-	private <T> void swap(List<T> list, int i, int j) {
-		T temp = list.get(i);
-		list.set(i, list.get(j));
-		list.set(j, temp);
+	private void resetAllDiscounts(PricingState state) {
+		for (PromotionCommand promotion : promotions) {
+			promotion.reset();
+		}
+		state.reset();
 	}
 
-	public double getTotalBeforePromotions() {
-		return Arrays.stream(productArray.getProducts()).mapToDouble(Product::getPrice).sum();
+	private static void swap(int[] array, int i, int j) {
+		int temp = array[i];
+		array[i] = array[j];
+		array[j] = temp;
 	}
 
-	public Product findCheapestProduct() {
-		Product[] products = productArray.getProducts();
-		if (productArray.isEmpty()) return null;
-		return Arrays.stream(products).min(ProductComparators.BY_PRICE_ASC).orElse(null);
-	}
+	public double getTotalBeforePromotions() { return Money.toMajor(getTotalBeforePromotionsMinor()); }
 
-	public Product findMostExpensiveProduct() {
-		Product[] products = productArray.getProducts();
-		if (productArray.isEmpty()) return null;
-		return Arrays.stream(products).max(ProductComparators.BY_PRICE_ASC).orElse(null);
+	public long getTotalBeforePromotionsMinor() {
+		long total = 0;
+		for (int i = 0; i < productArray.size(); i++) total += productArray.get(i).getPriceMinor();
+		return total;
 	}
 
-	public Product[] findNCheapestProducts(int n) {
-		Product[] products = productArray.getProducts();
-		if (productArray.isEmpty()) return new Product[0];
-		return Arrays.stream(products)
-		  .sorted(ProductComparators.BY_PRICE_ASC)
-		  .limit(n)
-		  .toArray(Product[] ::new);
-	}
+	/**
+	 * Returns the cheapest product in constant time from the maintained price-ordered view.
+	 */
+	public Product findCheapestProduct() { return sortedView(ProductComparators.BY_PRICE_ASC).first(); }
 
-	public Product[] findNMostExpensiveProducts(int n) {
-		Product[] products = productArray.getProducts();
-		if (productArray.isEmpty()) return new Product[0];
-		return Arrays.stream(products)
-		  .sorted(ProductComparators.BY_PRICE_DESC)
-		  .limit(n)
-		  .toArray(Product[] ::new);
-	}
+	/**
+	 * Returns the most expensive product in constant time from the maintained price-ordered view.
+	 */
+	public Product findMostExpensiveProduct() { return sortedView(ProductComparators.BY_PRICE_ASC).last(); }
+
+	/**
+	 * Returns the {@code n} cheapest products, cheapest first, walking only that many entries of the
+	 * price-ordered view.
+	 */
+	public Product[] findNCheapestProducts(int n) { return sortedView(ProductComparators.BY_PRICE_ASC).head(n); }
 
-	public Product[] getProducts() { return productArray.getProducts(); }
+	/**
+	 * Returns the {@code n} most expensive products, most expensive first, walking only that many entries
+	 * of the price-ordered view.
+	 */
+	public Product[] findNMostExpensiveProducts(int n) { return sortedView(ProductComparators.BY_PRICE_DESC).head(n); }
+
+	/**
+	 * Returns the products in the order of the current sorting strategy.
+	 */
+	public Product[] getProducts() { return sortedView.toArray(); }
 }
\ No newline at end of file
@@ -0,0 +1,125 @@
+package src;
+
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.NoSuchElementException;
+import java.util.TreeMap;
+
+/**
+ * The products of a cart kept in the order of one comparator. Products are held in a red-black tree keyed
+ * by the comparator and then by every product field, so insertion and removal are O(log n) and the
+ * ordered contents never have to be re-sorted. Products that are equal in every field are counted rather
+ * than stored twice. The first and last products are cached, so reading them is constant time.
+ */
+public class SortedProductView implements Iterable<Product> {
+	// Orders products the comparator considers equal, so that only identical products share a key
+	private static final Comparator<Product> TIE_BREAKER = Comparator.comparing(Product::getCode)
+	  .thenComparingLong(Product::getPriceMinor)
+	  .thenComparing(Product::getName)
+	  .thenComparingLong(Product::getDiscountPriceMinor);
+
+	private final Comparator<Product> comparator;
+	private final NavigableMap<Product, Integer> counts;
+	private int size;
+	private Product first;
+	private Product last;
+
+	public SortedProductView(Comparator<Product> comparator) {
+		this.comparator = comparator;
+		this.counts = new TreeMap<>(comparator.thenComparing(TIE_BREAKER));
+	}
+
+	public Comparator<Product> getComparator() { return comparator; }
+
+	public void add(Product product) {
+		counts.merge(product, 1, Integer::sum);
+		size++;
+		if (first == null || counts.comparator().compare(product, first) < 0) first = product;
+		if (last == null || counts.comparator().compare(product, last) > 0) last = product;
+	}
+
+	/**
+	 * Removes one occurrence of the given product, returning whether it was present.
+	 */
+	public boolean remove(Product product) {
+		Integer count = counts.get(product);
+		if (count == null) return false;
+		if (count == 1) {
+			counts.remove(product);
+			first = counts.isEmpty() ? null : counts.firstKey();
+			last = counts.isEmpty() ? null : counts.lastKey();
+		} else {
+			counts.put(product, count - 1);
+		}
+		size--;
+		return true;
+	}
+
+	public int size() { return size; }
+
+	public boolean isEmpty() { return size == 0; }
+
+	/**
+	 * Returns the first product in comparator order, or null if the view is empty.
+	 */
+	public Product first() { return first; }
+
+	/**
+	 * Returns the last product in comparator order, or null if the view is empty.
+	 */
+	public Product last() { return last; }
+
+	/**
+	 * Returns the first {@code n} products in comparator order, or all of them if there are fewer.
+	 */
+	public Product[] head(int n) { return take(iterator(), n); }
+
+	/**
+	 * Returns the products in comparator order.
+	 */
+	public Product[] toArray() {
+		Product[] products = new Product[size];
+		int i = 0;
+		for (Product product : this) products[i++] = product;
+		return products;
+	}
+
+	@Override
+	public Iterator<Product> iterator() {
+		return expand(counts);
+	}
+
+	private Product[] take(Iterator<Product> iterator, int n) {
+		if (n < 0) throw new IllegalArgumentException(Integer.toString(n));
+		Product[] products = new Product[Math.min(n, size)];
+		for (int i = 0; i < products.length; i++) products[i] = iterator.next();
+		return products;
+	}
+
+	private static Iterator<Product> expand(NavigableMap<Product, Integer> counts) {
+		Iterator<Map.Entry<Product, Integer>> entries = counts.entrySet().iterator();
+		return new Iterator<>() {
+			private Product current;
+			private int remaining;
+
+			@Override
+			public boolean hasNext() {
+				return remaining > 0 || entries.hasNext();
+			}
+
+			@Override
+			public Product next() {
+				if (remaining == 0) {
+					if (!entries.hasNext()) throw new NoSuchElementException();
+					Map.Entry<Product, Integer> entry = entries.next();
+					current = entry.getKey();
+					remaining = entry.getValue();
+				}
+				remaining--;
+				return current;
+			}
+		};
+	}
+}
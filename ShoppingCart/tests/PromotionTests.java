@@ -159,6 +159,19 @@ class PromotionTest {
 		assertEquals(240.0, cart.calculateTotal());
 	}
 
+	@Test
+	void testCouponBoundIgnoresUse() {
+		PricingState state = new PricingState(new Product[]{p1, p2});
+		OneTimeCouponPromotion coupon = new OneTimeCouponPromotion("P2", 30.0);
+		long unused = coupon.maxSavings(state);
+
+		// Applying uses the coupon but the bound still covers an application from its reset state
+		coupon.apply(state);
+		state.reset();
+		assertEquals(6000, unused);
+		assertEquals(unused, coupon.maxSavings(state));
+	}
+
 	@Test
 	void testMultiplePromotions() {
 		cart.addProduct(p1);
@@ -112,4 +112,289 @@ class ShoppingCartTest {
 		assertEquals(p2, expensive2[0]);
 		assertEquals(p4, expensive2[1]);
 	}
-}
\ No newline at end of file
+
+	@Test
+	void testBranchAndBoundMatchesEveryOrdering() {
+		cart.addProduct(p1);
+		cart.addProduct(p2);
+		cart.addProduct(p3);
+		cart.addProduct(p4);
+
+		PromotionCommand[] promotions = {
+			new OneTimeCouponPromotion("P2", 50.0), new Buy2Get3rdFree(), new OrderValuePercentageDiscount(300.0, 10.0),
+			new OneTimeCouponPromotion("P4", 20.0), new OneTimeCouponPromotion("P3", 100.0)
+		};
+		for (PromotionCommand promotion : promotions) cart.addPromotion(promotion);
+
+		// 0.9 * (100 + 100 + 120), with P3 free either way
+		assertEquals(288.0, cart.calculateTotal(), 0.001);
+		assertEquals(bruteForceTotal(promotions, 0, new Product[] {p1, p2, p3, p4}), cart.calculateTotal(), 0.001);
+		assertEquals(0.0, priceOf("P3"), 0.001);
+		assertEquals(90.0, priceOf("P1"), 0.001);
+	}
+
+	@Test
+	void testCouponsUsedInSiblingBranchesDoNotPrune() {
+		Product[] products = {
+			new Product("P1", "Product A", 100.0), new Product("P2", "Product B", 200.0), new Product("P3", "Product C", 50.0),
+			new Product("P4", "Product D", 150.0), new Product("P5", "Product E", 75.0)
+		};
+		PromotionCommand[] promotions = {
+			new OneTimeCouponPromotion("P2", 50.0), new Buy2Get3rdFree(), new OrderValuePercentageDiscount(300.0, 10.0),
+			new OneTimeCouponPromotion("P4", 20.0), new OneTimeCouponPromotion("P5", 30.0),
+			new OrderValuePercentageDiscount(500.0, 5.0), new OneTimeCouponPromotion("P1", 15.0)
+		};
+		for (Product product : products) cart.addProduct(product);
+		for (PromotionCommand promotion : promotions) cart.addPromotion(promotion);
+
+		assertEquals(bruteForceTotal(promotions, 0, products), cart.calculateTotal(), 0.001);
+	}
+
+	@Test
+	void testParallelSearchMatchesSequential() {
+		ShoppingCart parallelCart = new ShoppingCart();
+		parallelCart.setParallelSearch(true);
+		for (ShoppingCart target : new ShoppingCart[] {cart, parallelCart}) {
+			target.addProduct(new Product("P1", "Product A", 100.0));
+			target.addProduct(new Product("P2", "Product B", 200.0));
+			target.addProduct(new Product("P3", "Product C", 50.0));
+			target.addProduct(new Product("P4", "Product D", 150.0));
+			target.addProduct(new Product("P5", "Product E", 75.0));
+			target.addPromotion(new OneTimeCouponPromotion("P2", 50.0));
+			target.addPromotion(new Buy2Get3rdFree());
+			target.addPromotion(new OrderValuePercentageDiscount(300.0, 10.0));
+			target.addPromotion(new OneTimeCouponPromotion("P4", 20.0));
+			target.addPromotion(new OneTimeCouponPromotion("P5", 30.0));
+			target.addPromotion(new OrderValuePercentageDiscount(500.0, 5.0));
+			target.addPromotion(new OneTimeCouponPromotion("P1", 15.0));
+		}
+
+		double expected = cart.calculateTotal();
+		assertEquals(expected, parallelCart.calculateTotal());
+		assertEquals(expected, parallelCart.calculateTotal());
+		for (int i = 0; i < cart.getProducts().length; i++)
+			assertEquals(cart.getProducts()[i].getDiscountPrice(), parallelCart.getProducts()[i].getDiscountPrice());
+	}
+
+	@Test
+	void testPricingLeavesProductsUnchanged() {
+		cart.addProduct(p1);
+		cart.addProduct(p2);
+		cart.addPromotion(new OneTimeCouponPromotion("P1", 50.0));
+
+		assertEquals(250.0, cart.calculateTotal());
+		assertEquals(100.0, p1.getDiscountPrice());
+		assertEquals(50.0, priceOf("P1"));
+
+		// Pricing again starts from the base prices rather than the published discount prices
+		assertEquals(250.0, cart.calculateTotal());
+	}
+
+	@Test
+	void testPricingStateReset() {
+		PricingState state = new PricingState(new Product[] {p1, p2});
+		state.setDiscountPrice(0, 1000);
+		state.addLine(new Product("GIFT-1", "Gift", 0));
+		assertEquals(3, state.size());
+		assertEquals(21000, state.discountTotal());
+
+		PricingState copy = state.copy();
+		state.reset();
+		assertEquals(2, state.size());
+		assertEquals(30000, state.discountTotal());
+		assertEquals(30000, state.baseTotal());
+
+		state.copyFrom(copy);
+		assertEquals(3, state.size());
+		assertEquals(1000, state.getDiscountPrice(0));
+		assertEquals(-1, new PricingState(new Product[0]).indexOf("P1"));
+	}
+
+	@Test
+	void testAddProductsSortsOnce() {
+		cart.addProducts(java.util.List.of(p3, p1, p4, p2));
+
+		Product[] products = cart.getProducts();
+		assertEquals(4, products.length);
+		assertEquals(p2, products[0]);
+		assertEquals(p4, products[1]);
+		assertEquals(p1, products[2]);
+		assertEquals(p3, products[3]);
+	}
+
+	@Test
+	void testProductArrayIndex() {
+		ProductArray productArray = new ProductArray(new Product[0]);
+		for (int i = 0; i < 100; i++) productArray.addProduct(new Product("C" + i, "Product " + i, i));
+		assertEquals(100, productArray.size());
+		assertEquals(42, productArray.indexOf("C42"));
+
+		productArray.removeProduct("C42");
+		assertEquals(99, productArray.size());
+		assertEquals(-1, productArray.indexOf("C42"));
+		assertEquals("C99", productArray.get(42).getCode());
+		assertEquals(42, productArray.indexOf("C99"));
+
+		// A repeated code stays findable until its last product is removed
+		productArray.addProduct(new Product("C7", "Product 7", 7));
+		productArray.removeProduct("C7");
+		assertEquals("C7", productArray.get(productArray.indexOf("C7")).getCode());
+		productArray.removeProduct("C7");
+		assertEquals(-1, productArray.indexOf("C7"));
+		assertEquals(98, productArray.size());
+	}
+
+	@Test
+	void testSortedViewsStayInSync() {
+		cart.addProduct(p1);
+		cart.addProduct(p2);
+		cart.setSortingStrategy(ProductComparators.BY_NAME);
+		cart.setSortingStrategy(ProductComparators.BY_DISCOUNT_PRICE_DESC);
+		cart.setSortingStrategy(ProductComparators.BY_PRICE_DESC);
+
+		// Mutations while another view is active reach the cached ones
+		cart.addProduct(p3);
+		cart.addProduct(p3);
+		cart.removeProduct("P2");
+		cart.addPromotion(new OneTimeCouponPromotion("P1", 80.0));
+		cart.calculateTotal();
+
+		cart.setSortingStrategy(ProductComparators.BY_NAME);
+		assertArrayEquals(new String[] {"P1", "P3", "P3"}, codes(cart.getProducts()));
+
+		cart.setSortingStrategy(ProductComparators.BY_DISCOUNT_PRICE_DESC);
+		assertArrayEquals(new String[] {"P3", "P3", "P1"}, codes(cart.getProducts()));
+		assertEquals(20.0, cart.getProducts()[2].getDiscountPrice(), 0.001);
+	}
+
+	@Test
+	void testPriceQueriesFollowMutations() {
+		assertNull(cart.findCheapestProduct());
+		assertEquals(0, cart.findNCheapestProducts(3).length);
+
+		cart.addProducts(java.util.List.of(p1, p2, p3, p4));
+		assertEquals(p3, cart.findCheapestProduct());
+		assertEquals(p2, cart.findMostExpensiveProduct());
+
+		cart.removeProduct("P3");
+		cart.removeProduct("P2");
+		assertEquals(p1, cart.findCheapestProduct());
+		assertEquals(p4, cart.findMostExpensiveProduct());
+		assertArrayEquals(new Product[] {p1, p4}, cart.findNCheapestProducts(5));
+		assertArrayEquals(new Product[] {p4}, cart.findNMostExpensiveProducts(1));
+	}
+
+	@Test
+	void testTotalIsCachedUntilCartChanges() {
+		cart.addProduct(p1);
+		cart.addProduct(p2);
+		PromotionCommand coupon = new OneTimeCouponPromotion("P2", 50.0);
+		PromotionCommand discount = new OrderValuePercentageDiscount(200.0, 10.0);
+		cart.addPromotion(coupon);
+		cart.addPromotion(discount);
+
+		assertEquals(180.0, cart.calculateTotal(), 0.001);
+		assertFalse(cart.wasLastTotalCached());
+		assertEquals(180.0, cart.calculateTotal(), 0.001);
+		assertTrue(cart.wasLastTotalCached());
+		assertEquals(2, cart.getOptimalPromotionOrder().size());
+
+		cart.setSortingStrategy(ProductComparators.BY_NAME);
+		cart.calculateTotal();
+		assertTrue(cart.wasLastTotalCached());
+
+		cart.removePromotion(coupon);
+		assertEquals(270.0, cart.calculateTotal(), 0.001);
+		assertFalse(cart.wasLastTotalCached());
+		assertEquals(java.util.List.of(discount), cart.getOptimalPromotionOrder());
+
+		cart.addProduct(p3);
+		assertEquals(315.0, cart.calculateTotal(), 0.001);
+		assertFalse(cart.wasLastTotalCached());
+	}
+
+	@Test
+	void testTotalsAreExactInMinorUnits() {
+		cart.addProduct(new Product("A", "Apple", 0.1));
+		cart.addProduct(new Product("B", "Banana", 0.2));
+		cart.addProduct(new Product("C", "Cherry", 0.3));
+
+		// Summed as doubles this would be 0.6000000000000001
+		assertEquals(60, cart.calculateTotalMinor());
+		assertEquals(0.6, cart.calculateTotal());
+
+		// 33% of each line is rounded on its own: 7 + 13 + 20
+		cart.addPromotion(new OrderValuePercentageDiscount(0.0, 33.0));
+		assertEquals(40, cart.calculateTotalMinor());
+		assertEquals(60, cart.getTotalBeforePromotionsMinor());
+	}
+
+	@Test
+	void testMoneyRounding() {
+		assertEquals(62, Money.ofMajor(0.615));
+		assertEquals(1250, Money.basisPoints(12.5));
+		assertEquals(3333, Money.basisPoints(33.33));
+		assertThrows(IllegalArgumentException.class, () -> Money.basisPoints(33.333));
+		assertThrows(IllegalArgumentException.class, () -> new OrderValuePercentageDiscount(100.0, 33.333));
+		assertThrows(IllegalArgumentException.class, () -> new OneTimeCouponPromotion("P1", 0.005));
+		assertEquals(3, Money.percentOf(5, 5000));
+		assertEquals(-3, Money.percentOf(-5, 5000));
+		assertEquals(1699, Money.discount(1999, 1500));
+		assertEquals("-12.05", Money.format(-1205));
+		assertThrows(ArithmeticException.class, () -> Money.percentOf(Long.MAX_VALUE, 2));
+	}
+
+	@Test
+	void testCustomComparatorViewIsRebuiltOnDemand() {
+		cart.addProducts(java.util.List.of(p1, p2, p3));
+		for (int i = 0; i < 3; i++) {
+			cart.setSortingStrategy(java.util.Comparator.comparing(Product::getCode).reversed());
+			assertArrayEquals(new String[] {"P3", "P2", "P1"}, codes(cart.getProducts()));
+		}
+
+		// The active custom view follows mutations, and shared views stay in sync meanwhile
+		cart.addProduct(p4);
+		cart.removeProduct("P2");
+		assertArrayEquals(new String[] {"P4", "P3", "P1"}, codes(cart.getProducts()));
+		cart.setSortingStrategy(ProductComparators.BY_NAME);
+		assertArrayEquals(new String[] {"P1", "P3", "P4"}, codes(cart.getProducts()));
+		assertEquals(p3, cart.findCheapestProduct());
+	}
+
+	private static String[] codes(Product[] products) {
+		String[] codes = new String[products.length];
+		for (int i = 0; i < products.length; i++) codes[i] = products[i].getCode();
+		return codes;
+	}
+
+	private double priceOf(String code) {
+		for (Product product : cart.getProducts()) {
+			if (product.getCode().equals(code)) return product.getDiscountPrice();
+		}
+		throw new AssertionError("No product " + code);
+	}
+
+	private double bruteForceTotal(PromotionCommand[] promotions, int start, Product[] products) {
+		if (start == promotions.length) {
+			ProductArray productArray = new ProductArray(products);
+			for (PromotionCommand promotion : promotions) {
+				promotion.reset();
+				promotion.apply(productArray);
+			}
+			double total = 0;
+			for (Product product : productArray.getProducts()) total += product.getDiscountPrice();
+			return total;
+		}
+
+		double lowest = Double.MAX_VALUE;
+		for (int i = start; i < promotions.length; i++) {
+			PromotionCommand temp = promotions[start];
+			promotions[start] = promotions[i];
+			promotions[i] = temp;
+			lowest = Math.min(lowest, bruteForceTotal(promotions, start + 1, products));
+			promotions[i] = promotions[start];
+			promotions[start] = temp;
+		}
+		return lowest;
+	}
+}